@@ -0,0 +1,10 @@
+package org.vsarthi.backend.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk import: the songs that were added, and the reason each rejected link was skipped.
+ */
+public record BulkImportResult<T>(List<T> added, Map<String, String> rejected) {
+}
@@ -0,0 +1,12 @@
+package org.vsarthi.backend.DTO;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BulkSongRequest {
+    public static final int MAX_LINKS = 500;
+
+    private List<String> youtubeLinks;
+}
@@ -0,0 +1,35 @@
+package org.vsarthi.backend.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueueChange {
+
+    public enum Type {
+        ADDED,
+        REMOVED,
+        MOVED,
+        VOTES,
+        NOW_PLAYING
+    }
+
+    private Type type;
+    private Long songId;
+    private Integer position;
+    private Integer upvotes;
+
+    // Only set for ADDED
+    private String title;
+    private String youtubeLink;
+    private String addedBy;
+
+    public QueueChange(Type type, Long songId) {
+        this.type = type;
+        this.songId = songId;
+    }
+}
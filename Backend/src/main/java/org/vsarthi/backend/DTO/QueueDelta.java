@@ -0,0 +1,21 @@
+package org.vsarthi.backend.DTO;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Changes that turn queue version {@code version - 1} into {@code version}, applied in order: REMOVED drops a
+ * song, NOW_PLAYING takes a song out of the queue as the playing one, and every entry with a
+ * {@code position} (re)inserts its song at that 1-based queue position.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueDelta {
+    private Long roomId;
+    private long version;
+    private List<QueueChange> changes;
+}
@@ -0,0 +1,18 @@
+package org.vsarthi.backend.DTO;
+
+import java.util.List;
+
+import org.vsarthi.backend.model.Song;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueSnapshot {
+    private Long roomId;
+    private long version;
+    private List<Song> songs;
+}
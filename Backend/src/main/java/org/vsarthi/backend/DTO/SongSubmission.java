@@ -0,0 +1,35 @@
+package org.vsarthi.backend.DTO;
+
+import org.vsarthi.backend.model.Song;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SongSubmission {
+    // Returned when the song was submitted, and repeated in the outcome
+    private String pendingId;
+    private String youtubeLink;
+    // Set when the song was added
+    private Song song;
+    // Set when the song was rejected
+    private String error;
+
+    public static SongSubmission pending(String pendingId, String youtubeLink) {
+        return new SongSubmission(pendingId, youtubeLink, null, null);
+    }
+
+    public static SongSubmission added(String pendingId, Song song) {
+        return new SongSubmission(pendingId, song.getYoutubeLink(), song, null);
+    }
+
+    public static SongSubmission failed(String pendingId, String youtubeLink, String error) {
+        return new SongSubmission(pendingId, youtubeLink, null, error);
+    }
+}
@@ -4,7 +4,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.vsarthi.backend.model.Users;
+import org.vsarthi.backend.model.AuthUser;
 import org.vsarthi.backend.model.UserPrincipal;
 import org.vsarthi.backend.repository.UserRepository;
 
@@ -20,12 +20,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
 
-        Users user = userRepository.findByEmail(email);
-
-        if(user == null) {
-            System.out.println("User not found");
-            throw new UsernameNotFoundException("User not found");
-        }
+        AuthUser user = userRepository.findAuthUserByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return new UserPrincipal(user);
 
@@ -33,12 +29,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     public UserDetails loadUserByEmail(String email) throws UsernameNotFoundException {
 
-        Users user = userRepository.findByEmail(email);
-
-        if(user == null) {
-            System.out.println("User not found");
-            throw new UsernameNotFoundException("User not found");
-        }
+        AuthUser user = userRepository.findAuthUserByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return new UserPrincipal(user);
 
@@ -0,0 +1,12 @@
+package org.vsarthi.backend.DTO;
+
+/**
+ * What the app needs to know about a YouTube video, from a single videos.list call. A video that
+ * doesn't exist is represented with {@code found} false, so that it can be cached like any other.
+ */
+public record VideoMetadata(String videoId, boolean found, String title, boolean available, Long durationSeconds, String thumbnailUrl) {
+
+    public static VideoMetadata notFound(String videoId) {
+        return new VideoMetadata(videoId, false, null, false, null, null);
+    }
+}
@@ -0,0 +1,27 @@
+package org.vsarthi.backend.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VoteAck {
+    private Long songId;
+    // Set when the vote was counted
+    private Integer upvotes;
+    // Set when the vote was rejected
+    private String error;
+
+    public static VoteAck accepted(Long songId, int upvotes) {
+        return new VoteAck(songId, upvotes, null);
+    }
+
+    public static VoteAck rejected(Long songId, String error) {
+        return new VoteAck(songId, null, error);
+    }
+}
@@ -0,0 +1,16 @@
+package org.vsarthi.backend.DTO;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A vote sent over STOMP, either for a single song or for a batch of songs.
+ */
+@Data
+@NoArgsConstructor
+public class VoteMessage {
+    private Long songId;
+    private List<Long> songIds;
+}
@@ -0,0 +1,158 @@
+package org.vsarthi.backend.config;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.service.UserService;
+import org.vsarthi.backend.service.VerifiedTokenCache;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates a request from its access token, taken from the {@code Authorization} header or the
+ * {@code accessToken} cookie. If the access token is missing or expired and a refresh token cookie is
+ * present, a new access token is issued and set as cookie. WebSocket handshakes are authenticated when
+ * they carry a valid access token, so the STOMP session gets the user as principal, but never rejected.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private final VerifiedTokenCache verifiedTokens;
+    private final UserService userService;
+
+    @Autowired
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokens, @Lazy UserService userService) {
+        this.verifiedTokens = verifiedTokens;
+        this.userService = userService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String accessToken = null;
+        String refreshToken = null;
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            accessToken = authHeader.substring(7);
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (accessToken == null && "accessToken".equals(cookie.getName())) {
+                    accessToken = cookie.getValue();
+                } else if ("refreshToken".equals(cookie.getName())) {
+                    refreshToken = cookie.getValue();
+                }
+            }
+        }
+
+        if (isWebSocketHandshake(request)) {
+            if (accessToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                try {
+                    authenticate(accessToken, request);
+                } catch (Exception e) {
+                    logger.debug("WebSocket handshake without valid access token: {}", e.getMessage());
+                }
+            }
+        } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                if (accessToken != null && !accessToken.isEmpty()) {
+                    authenticate(accessToken, request);
+                } else if (refreshToken != null && !refreshToken.isEmpty()) {
+                    logger.debug("No access token for {}, refreshing", request.getRequestURI());
+                    refresh(refreshToken, request, response);
+                }
+            } catch (ExpiredJwtException e) {
+                if (refreshToken == null || refreshToken.isEmpty()) {
+                    logger.debug("Access token expired and no refresh token for {}", request.getRequestURI());
+                    fail(response, "Session expired. Please log in again.");
+                    return;
+                }
+                logger.debug("Access token expired for {}, refreshing", request.getRequestURI());
+                try {
+                    refresh(refreshToken, request, response);
+                } catch (Exception refreshFailure) {
+                    logger.info("Failed to refresh access token: {}", refreshFailure.getMessage());
+                    fail(response, "Failed to refresh token. Please log in again.");
+                    return;
+                }
+            } catch (Exception e) {
+                logger.info("Authentication failed for {}: {}", request.getRequestURI(), e.getMessage());
+                fail(response, "Authentication failed. Please log in again.");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(String accessToken, HttpServletRequest request) {
+        UserPrincipal userDetails = verifiedTokens.resolve(accessToken);
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    private void refresh(String refreshToken, HttpServletRequest request, HttpServletResponse response) {
+        String newAccessToken = userService.refreshedAccessToken(refreshToken);
+        ResponseCookie accessTokenCookie = ResponseCookie.from("accessToken", newAccessToken)
+                .httpOnly(true)
+                .secure(true)
+                .path("/")
+                .maxAge(3600) // 1 hour
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, accessTokenCookie.toString());
+        authenticate(newAccessToken, request);
+    }
+
+    private void fail(HttpServletResponse response, String message) throws IOException {
+        ResponseCookie clearAccessTokenCookie = ResponseCookie.from("accessToken", "")
+                .httpOnly(true)
+                .secure(true)
+                .path("/")
+                .maxAge(0)
+                .build();
+        ResponseCookie clearRefreshTokenCookie = ResponseCookie.from("refreshToken", "")
+                .httpOnly(true)
+                .secure(true)
+                .path("/api/auth/refresh")
+                .maxAge(0)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, clearAccessTokenCookie.toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, clearRefreshTokenCookie.toString());
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.getWriter().write(message);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.contains("/api/auth/register") ||
+                uri.contains("/api/auth/login") ||
+                uri.contains("/api/auth/refresh") ||
+                uri.contains("/oauth2") ||
+                uri.contains("/api/auth/logout");
+    }
+
+    private static boolean isWebSocketHandshake(HttpServletRequest request) {
+        return request.getRequestURI().contains("/ws");
+    }
+}
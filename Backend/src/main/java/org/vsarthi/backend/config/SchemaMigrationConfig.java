@@ -0,0 +1,22 @@
+package org.vsarthi.backend.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SchemaMigrationConfig {
+
+    @Bean(initMethod = "migrate")
+    public SchemaMigrations schemaMigrations(DataSource dataSource) {
+        return new SchemaMigrations(dataSource, "db/migration");
+    }
+
+    // Hibernate validates the schema when the entity manager factory starts, so the migrations run first
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor schemaMigrationsBeforeJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrations");
+    }
+}
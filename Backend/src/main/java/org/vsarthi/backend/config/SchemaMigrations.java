@@ -0,0 +1,204 @@
+package org.vsarthi.backend.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+/**
+ * Brings the schema up to date from the versioned scripts under {@code db/migration}, named
+ * {@code V<version>__<description>.sql}. Scripts in the folder named after the database
+ * ({@code postgresql}, {@code h2}) hold what only that database supports. Each script runs once, in its
+ * own transaction, and is recorded in {@code schema_history}; a script changed after it ran stops the
+ * start-up. A database whose tables Hibernate created before there were migrations gets version 1
+ * recorded as applied without running it. On PostgreSQL the whole run holds an advisory lock, so nodes
+ * starting together apply each script once.
+ */
+public class SchemaMigrations {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    static final String HISTORY_TABLE = "schema_history";
+    // Created by Hibernate on databases that predate the migrations
+    private static final String EXISTING_SCHEMA_TABLE = "users";
+    private static final String POSTGRESQL = "postgresql";
+    // Advisory lock key shared by every node migrating the same database
+    private static final long LOCK_KEY = 0x68697665_736368L;
+
+    private final DataSource dataSource;
+    private final String location;
+
+    public SchemaMigrations(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    public void migrate() throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            String database = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+            List<Migration> migrations = migrations(database);
+            lock(connection, database);
+            try {
+                migrate(connection, migrations);
+            } finally {
+                unlock(connection, database);
+            }
+        }
+    }
+
+    private void migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        // Read under the lock, so a node that waited sees what the previous one applied
+        boolean existingSchema = !tableExists(connection, HISTORY_TABLE) && tableExists(connection, EXISTING_SCHEMA_TABLE);
+
+        connection.setAutoCommit(false);
+        try {
+            Map<Integer, Long> applied = history(connection);
+            if (existingSchema && !migrations.isEmpty()) {
+                Migration baseline = migrations.getFirst();
+                record(connection, baseline);
+                connection.commit();
+                applied.put(baseline.version(), baseline.checksum());
+                logger.info("Schema created before migrations, recorded {} as applied", baseline.script());
+            }
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.version());
+                if (checksum == null) {
+                    apply(connection, migration);
+                } else if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration " + migration.script() + " was changed after it was applied");
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Nodes starting together take turns. Other databases are only used embedded, by a single process.
+    private static void lock(Connection connection, String database) throws SQLException {
+        if (POSTGRESQL.equals(database)) {
+            advisoryLock(connection, "SELECT pg_advisory_lock(?)");
+        }
+    }
+
+    // The lock belongs to the session, which outlives the connection going back to the pool
+    private static void unlock(Connection connection, String database) throws SQLException {
+        if (POSTGRESQL.equals(database)) {
+            advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+        }
+    }
+
+    private static void advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    List<Migration> migrations(String database) throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<Resource> scripts = new ArrayList<>(List.of(resolver.getResources("classpath*:" + location + "/*.sql")));
+        scripts.addAll(List.of(resolver.getResources("classpath*:" + location + "/" + database + "/*.sql")));
+
+        Map<Integer, Migration> migrations = new HashMap<>();
+        for (Resource script : scripts) {
+            Matcher name = SCRIPT_NAME.matcher(script.getFilename());
+            if (!name.matches()) {
+                throw new IllegalStateException("Migration " + script.getFilename() + " is not named V<version>__<description>.sql");
+            }
+            Migration migration = new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+                    script.getFilename(), checksum(script), script);
+            Migration other = migrations.put(migration.version(), migration);
+            if (other != null) {
+                throw new IllegalStateException("Migrations " + other.script() + " and " + migration.script() + " share a version");
+            }
+        }
+        return migrations.values().stream()
+                .sorted(Comparator.comparingInt(Migration::version))
+                .toList();
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        try {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource(), StandardCharsets.UTF_8));
+            record(connection, migration);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new IllegalStateException("Migration " + migration.script() + " failed: " + e.getMessage(), e);
+        }
+        logger.info("Applied migration {} in {} ms", migration.script(), System.currentTimeMillis() - start);
+    }
+
+    private Map<Integer, Long> history(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " (version integer not null, "
+                    + "description varchar(200) not null, script varchar(200) not null, checksum bigint not null, "
+                    + "installed_on timestamp not null, primary key (version))");
+            connection.commit();
+
+            Map<Integer, Long> applied = new HashMap<>();
+            try (ResultSet rows = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+                while (rows.next()) {
+                    applied.put(rows.getInt(1), rows.getLong(2));
+                }
+            }
+            return applied;
+        }
+    }
+
+    private void record(Connection connection, Migration migration) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE
+                + " (version, description, script, checksum, installed_on) VALUES (?, ?, ?, ?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.setString(3, migration.script());
+            insert.setLong(4, migration.checksum());
+            insert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            insert.executeUpdate();
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name, null)) {
+            return tables.next();
+        }
+    }
+
+    private static long checksum(Resource script) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = script.getInputStream()) {
+            crc.update(in.readAllBytes());
+        }
+        return crc.getValue();
+    }
+
+    record Migration(int version, String description, String script, long checksum, Resource resource) {
+    }
+}
@@ -0,0 +1,53 @@
+package org.vsarthi.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.service.VerifiedTokenCache;
+
+/**
+ * Authenticates a STOMP session once, from the access token in the CONNECT frame's {@code Authorization}
+ * header. The principal is kept by the session and handed to every later frame of the connection, even
+ * after the token expires. Clients that send no token keep the principal of the WebSocket handshake, if any.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    private final VerifiedTokenCache verifiedTokens;
+
+    public StompAuthChannelInterceptor(VerifiedTokenCache verifiedTokens) {
+        this.verifiedTokens = verifiedTokens;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+        try {
+            UserPrincipal userPrincipal = verifiedTokens.resolve(authHeader.substring(7));
+            accessor.setUser(new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities()));
+            logger.debug("STOMP session {} authenticated as user {}", accessor.getSessionId(), userPrincipal.getUser().getId());
+        } catch (Exception e) {
+            logger.info("Rejected STOMP CONNECT of session {}: {}", accessor.getSessionId(), e.getMessage());
+            throw new MessageDeliveryException(message, "Invalid access token");
+        }
+        return message;
+    }
+}
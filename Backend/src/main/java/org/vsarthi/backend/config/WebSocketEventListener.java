@@ -1,13 +1,15 @@
 package org.vsarthi.backend.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
-import org.vsarthi.backend.model.Users;
+import org.vsarthi.backend.model.UserPrincipal;
 import org.vsarthi.backend.service.RoomService;
 
 import java.util.Map;
@@ -15,6 +17,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class WebSocketEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
     private final RoomService roomService;
 
@@ -26,11 +29,10 @@ public class WebSocketEventListener {
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
         SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
         String sessionId = headers.getSessionId();
-        UsernamePasswordAuthenticationToken authentication =
-                (UsernamePasswordAuthenticationToken) headers.getUser();
-
-        if (authentication != null && authentication.getPrincipal() instanceof Users user) {
-            System.out.println("User connected: " + user.getUsername() + " with session: " + sessionId);
+        if (headers.getUser() instanceof Authentication authentication && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            logger.debug("User {} connected with session {}", userPrincipal.getUser().getId(), sessionId);
+        } else {
+            logger.debug("Anonymous session {} connected", sessionId);
         }
     }
 
@@ -70,8 +70,16 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response) {
+    public ResponseEntity<?> logout(@CookieValue(name = "accessToken", required = false) String accessToken,
+                                    @CookieValue(name = "refreshToken", required = false) String refreshToken,
+                                    HttpServletRequest request, HttpServletResponse response) {
         request.getSession().invalidate();
+        if (accessToken != null && !accessToken.isEmpty()) {
+            userService.revokeAccessTokens(accessToken);
+        }
+        if (refreshToken != null && !refreshToken.isEmpty()) {
+            userService.revokeRefreshToken(refreshToken);
+        }
         UserService.removeCookies(response);
 
         // Clear the access token and refresh token cookies
@@ -4,6 +4,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.vsarthi.backend.DTO.BulkImportResult;
+import org.vsarthi.backend.DTO.BulkSongRequest;
 import org.vsarthi.backend.DTO.PlaylistRequest;
 import org.vsarthi.backend.model.Playlists;
 import org.vsarthi.backend.model.PlaylistSongs;
@@ -54,6 +56,18 @@ public class PlaylistController {
         return ResponseEntity.ok(song);
     }
 
+    @PostMapping("/{playlistId}/songs/bulk")
+    public ResponseEntity<BulkImportResult<PlaylistSongs>> addSongsToPlaylist(
+            @PathVariable Long playlistId,
+            @RequestBody BulkSongRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) throws Exception {
+        BulkImportResult<PlaylistSongs> result = playlistService.addSongsToPlaylist(
+                playlistId, request.getYoutubeLinks(), userPrincipal.getUser()
+        );
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/genre/{genre}")
     public ResponseEntity<List<Playlists>> getPlaylistsByGenre(@PathVariable String genre) {
         List<Playlists> playlists = playlistService.getPlaylistsByGenre(genre);
@@ -1,8 +1,17 @@
 package org.vsarthi.backend.controller;
 
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -10,6 +19,8 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,28 +30,47 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.vsarthi.backend.DTO.BulkImportResult;
+import org.vsarthi.backend.DTO.BulkSongRequest;
 import org.vsarthi.backend.DTO.LeaveRoomMessage;
+import org.vsarthi.backend.DTO.QueueSnapshot;
 import org.vsarthi.backend.DTO.SongEndedResponse;
+import org.vsarthi.backend.DTO.SongSubmission;
 import org.vsarthi.backend.DTO.TimeSync;
+import org.vsarthi.backend.DTO.VoteAck;
+import org.vsarthi.backend.DTO.VoteMessage;
 import org.vsarthi.backend.model.Room;
 import org.vsarthi.backend.model.Song;
 import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.model.Users;
+import org.vsarthi.backend.service.RoomCommandExecutor;
 import org.vsarthi.backend.service.RoomService;
+import org.vsarthi.backend.service.SongSubmissions;
 import org.vsarthi.backend.service.VotingService;
 
 @RestController
 @RequestMapping("/api/rooms")
 public class RoomController {
+    private static final Logger logger = LoggerFactory.getLogger(RoomController.class);
+
+    private static final int MAX_VOTE_BATCH = 100;
 
     private final RoomService roomService;
     private final SimpMessagingTemplate messagingTemplate;
     private final VotingService votingService;
+    private final RoomCommandExecutor roomCommands;
+    private final SongSubmissions songSubmissions;
+
+    @Value("${hive.songs.async-submission.enabled:false}")
+    private boolean asyncSongSubmission;
 
     @Autowired
-    public RoomController(RoomService roomService , SimpMessagingTemplate messagingTemplate, VotingService votingService) {
+    public RoomController(RoomService roomService , SimpMessagingTemplate messagingTemplate, VotingService votingService, RoomCommandExecutor roomCommands, SongSubmissions songSubmissions) {
         this.roomService = roomService;
         this.messagingTemplate = messagingTemplate;
         this.votingService = votingService;
+        this.roomCommands = roomCommands;
+        this.songSubmissions = songSubmissions;
     }
 
     @PostMapping
@@ -55,19 +85,44 @@ public class RoomController {
         return ResponseEntity.ok(rooms);
     }
 
+    // With async submission the song is added in the background and the response is 202 with a pending id.
+    // Adding isn't submitted as a room command: the service looks the video up first and only takes the
+    // room for the write.
     @PostMapping("/{roomId}/songs")
-    public ResponseEntity<Song> addSong(@PathVariable Long roomId, @RequestBody Song song, @AuthenticationPrincipal UserPrincipal userPrincipal) throws Exception {
+    public CompletableFuture<ResponseEntity<?>> addSong(@PathVariable Long roomId, @RequestBody Song song, @AuthenticationPrincipal UserPrincipal userPrincipal) throws Exception {
+        if (asyncSongSubmission) {
+            try {
+                SongSubmission submission = songSubmissions.submit(roomId, song.getYoutubeLink(), userPrincipal.getUser(), userPrincipal.getUsername());
+                return CompletableFuture.completedFuture(ResponseEntity.accepted().body(submission));
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+            }
+        }
         Song addedSong = roomService.addSongToRoom(roomId, song.getYoutubeLink(), userPrincipal.getUser());
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/songs", roomService.getSongsInRoom(roomId));
-        return ResponseEntity.ok(addedSong);
+        roomService.publishQueue(roomId);
+        return CompletableFuture.completedFuture(ResponseEntity.ok(addedSong));
+    }
+
+    @PostMapping("/{roomId}/songs/bulk")
+    public ResponseEntity<BulkImportResult<Song>> addSongs(@PathVariable Long roomId, @RequestBody BulkSongRequest request, @AuthenticationPrincipal UserPrincipal userPrincipal) throws Exception {
+        BulkImportResult<Song> result = roomService.addSongsToRoom(roomId, request.getYoutubeLinks(), userPrincipal.getUser());
+        if (!result.added().isEmpty()) {
+            roomService.publishQueue(roomId);
+        }
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping("/{roomId}/songs")
-    public ResponseEntity<List<Song>> getRoomSongs(@PathVariable Long roomId) {
-        List<Song> songs = roomService.getSongsInRoom(roomId);
+    public ResponseEntity<List<Song>> getRoomSongs(@PathVariable Long roomId, @RequestParam(required = false) Integer limit) {
+        List<Song> songs = limit != null ? roomService.getTopSongsInRoom(roomId, limit) : roomService.getSongsInRoom(roomId);
         return ResponseEntity.ok(songs);
     }
 
+    @GetMapping("/{roomId}/songs/snapshot")
+    public ResponseEntity<QueueSnapshot> getRoomSongsSnapshot(@PathVariable Long roomId) {
+        return ResponseEntity.ok(roomService.getQueueSnapshot(roomId));
+    }
+
     @GetMapping("/{roomId}")
     public ResponseEntity<Room> getRoom(@PathVariable Long roomId) {
         Room room = roomService.getRoomDetails(roomId);
@@ -75,20 +130,62 @@ public class RoomController {
     }
 
     @PostMapping("/{roomId}/current-song")
-    public ResponseEntity<Song> updateCurrentSong(@PathVariable Long roomId, @RequestParam Long songId, @AuthenticationPrincipal UserPrincipal userPrincipal) {
-        Song updatedSong = roomService.updateCurrentSong(roomId, songId, userPrincipal.getUser());
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/currentSong", updatedSong);
-        return ResponseEntity.ok(updatedSong);
+    public CompletableFuture<ResponseEntity<Song>> updateCurrentSong(@PathVariable Long roomId, @RequestParam Long songId, @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return roomCommands.submit(roomId, () -> {
+            Song updatedSong = roomService.updateCurrentSong(roomId, songId, userPrincipal.getUser());
+            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/currentSong", updatedSong);
+            return ResponseEntity.ok(updatedSong);
+        });
     }
 
     @PostMapping("/songs/{songId}/vote")
-    public ResponseEntity<?> voteSong(@PathVariable Long songId, @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public CompletableFuture<ResponseEntity<?>> voteSong(@PathVariable Long songId, @AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
-            Song updatedSong = votingService.vote(songId, userPrincipal.getUser());
-            return ResponseEntity.ok(updatedSong);
+            Long roomId = votingService.getRoomIdForSong(songId);
+            return roomCommands.submit(roomId, () -> votingService.vote(songId, userPrincipal.getUser()))
+                    .handle((updatedSong, e) -> e == null
+                            ? ResponseEntity.ok(updatedSong)
+                            : ResponseEntity.badRequest().body(unwrap(e).getMessage()));
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+    }
+
+    /**
+     * Votes over the room's STOMP session. The user is the one {@code StompAuthChannelInterceptor}
+     * authenticated from the session's CONNECT frame, so no token is checked per vote. A batch runs as one room command and is acknowledged in one message.
+     */
+    @MessageMapping("/room/{roomId}/vote")
+    @SendToUser("/queue/votes")
+    public CompletableFuture<List<VoteAck>> handleVote(@DestinationVariable Long roomId, @Payload VoteMessage message, Principal principal) {
+        Set<Long> songIds = new LinkedHashSet<>();
+        if (message.getSongId() != null) {
+            songIds.add(message.getSongId());
+        }
+        if (message.getSongIds() != null) {
+            songIds.addAll(message.getSongIds());
         }
+
+        Users user = sessionUser(principal);
+        String error = user == null ? "Not authenticated" : songIds.size() > MAX_VOTE_BATCH ? "Too many votes in one message" : null;
+        if (error != null) {
+            return CompletableFuture.completedFuture(songIds.stream().map(songId -> VoteAck.rejected(songId, error)).toList());
+        }
+
+        return roomCommands.submit(roomId, () -> {
+            List<VoteAck> acks = new ArrayList<>(songIds.size());
+            for (Long songId : songIds) {
+                try {
+                    if (!roomId.equals(votingService.getRoomIdForSong(songId))) {
+                        throw new IllegalArgumentException("Song not in room");
+                    }
+                    acks.add(VoteAck.accepted(songId, votingService.vote(songId, user).getUpvotes()));
+                } catch (RuntimeException e) {
+                    acks.add(VoteAck.rejected(songId, e.getMessage()));
+                }
+            }
+            return acks;
+        });
     }
 
 //    @PostMapping("/{roomId}/songs/votes")
@@ -116,33 +213,37 @@ public class RoomController {
 
 
     @MessageMapping("/room/{roomId}/join")
-    @SendTo("/topic/room/{roomId}/activeUsers")
-    Integer joinRoom(@DestinationVariable Long roomId, SimpMessageHeaderAccessor headerAccessor) {
+    void joinRoom(@DestinationVariable Long roomId, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = headerAccessor.getSessionId();
-        return roomService.addActiveUser(roomId, sessionId);
+        logFailure(roomCommands.submit(roomId, () -> roomService.addActiveUser(roomId, sessionId)), "join", roomId);
     }
 
     @MessageMapping("/room/{roomId}/leave")
-    @SendTo("/topic/room/{roomId}/activeUsers")
-    public Integer handleRoomLeave(
+    public void handleRoomLeave(
             @DestinationVariable Long roomId,
             @Payload LeaveRoomMessage message,
-            SimpMessageHeaderAccessor headerAccessor
+            SimpMessageHeaderAccessor headerAccessor,
+            Principal principal
     ) {
-        try {
-            String sessionId = headerAccessor.getSessionId();
-            Integer remainingUsers = roomService.leaveRoom(roomId, sessionId, message.getEmail());
-
-            // If creator left (remainingUsers = 0), notify all users in the room
-
-            if (remainingUsers == 0) {
-                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/creatorLeft", "");
+        String sessionId = headerAccessor.getSessionId();
+        // The session's user, when authenticated, so that nobody can leave in the creator's name
+        Users user = sessionUser(principal);
+        String email = user != null ? user.getEmail() : message.getEmail();
+        logFailure(roomCommands.submit(roomId, () -> {
+            try {
+                Integer remainingUsers = roomService.leaveRoom(roomId, sessionId, email);
+
+                // If creator left (remainingUsers = 0), notify all users in the room
+
+                if (remainingUsers == 0) {
+                    messagingTemplate.convertAndSend("/topic/room/" + roomId + "/creatorLeft", "");
+                }
+
+                return remainingUsers;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to leave room: " + e.getMessage());
             }
-
-            return remainingUsers;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to leave room: " + e.getMessage());
-        }
+        }), "leave", roomId);
     }
 
     @PostMapping("/{roomId}/close")
@@ -159,8 +260,7 @@ public class RoomController {
 
     @MessageMapping("/room/{roomId}/disconnect")
     public void handleDisconnect(@DestinationVariable Long roomId, @Payload String userId) {
-        Integer activeUsers = roomService.removeActiveUser(roomId, userId);
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/activeUsers", activeUsers);
+        logFailure(roomCommands.submit(roomId, () -> roomService.removeActiveUser(roomId, userId)), "disconnect from", roomId);
     }
 
     @GetMapping("/{roomId}/is-creator")
@@ -170,36 +270,42 @@ public class RoomController {
     }
 
     @PostMapping("/{roomId}/songs/{songId}/ended")
-    public ResponseEntity<?> handleSongEnded(@PathVariable Long roomId, @PathVariable Long songId) {
-        try {
+    public CompletableFuture<ResponseEntity<?>> handleSongEnded(@PathVariable Long roomId, @PathVariable Long songId) {
+        return roomCommands.submit(roomId, () -> {
             SongEndedResponse response = roomService.handleSongEnded(roomId, songId);
-            votingService.removeVotes(songId); // Clear vote cache when song ends
             messagingTemplate.convertAndSend("/topic/room/" + roomId + "/song-ended", response);
-            return ResponseEntity.ok().build();
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+            return response;
+        }).handle((response, e) -> e == null
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.badRequest().body(unwrap(e).getMessage()));
     }
 
     @PostMapping("/{roomId}/songs/{songId}/play-now")
-    public ResponseEntity<Song> playNow(
+    public CompletableFuture<ResponseEntity<Song>> playNow(
             @PathVariable Long roomId,
             @PathVariable Long songId,
             @AuthenticationPrincipal UserPrincipal userPrincipal
     ) {
-        Song song = roomService.playNow(roomId, songId, userPrincipal.getUser());
-        return ResponseEntity.ok(song);
+        return roomCommands.submit(roomId, () -> ResponseEntity.ok(roomService.playNow(roomId, songId, userPrincipal.getUser())));
     }
 
     @DeleteMapping("/{roomId}/songs/{songId}/remove")
-    public ResponseEntity<?> removeSong(
+    public CompletableFuture<ResponseEntity<?>> removeSong(
             @PathVariable Long roomId,
             @PathVariable Long songId,
             @AuthenticationPrincipal UserPrincipal userPrincipal
     ) {
-        roomService.removeSong(roomId, songId, userPrincipal.getUser());
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/songs", roomService.getSongsInRoom(roomId));
-        return ResponseEntity.ok().build();
+        return roomCommands.submit(roomId, () -> {
+            roomService.removeSong(roomId, songId, userPrincipal.getUser());
+            roomService.publishQueue(roomId);
+            return ResponseEntity.ok().build();
+        });
+    }
+
+    @MessageMapping("/room/{roomId}/songs/snapshot")
+    @SendToUser("/queue/songs")
+    public QueueSnapshot handleSnapshotRequest(@DestinationVariable Long roomId) {
+        return roomService.getQueueSnapshot(roomId);
     }
 
     @MessageMapping("/room/{roomId}/timeSync")
@@ -214,5 +320,23 @@ public class RoomController {
         messagingTemplate.convertAndSend("/topic/room/" + roomId + "/syncRequest", "");
     }
 
+    private static Users sessionUser(Principal principal) {
+        if (principal instanceof Authentication authentication && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getUser();
+        }
+        return null;
+    }
 
+    // Nobody waits for the result of these commands, so a failure would otherwise go unnoticed
+    private static void logFailure(CompletableFuture<?> command, String action, Long roomId) {
+        command.whenComplete((result, e) -> {
+            if (e != null) {
+                logger.warn("Failed to {} room {}", action, roomId, unwrap(e));
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
 }
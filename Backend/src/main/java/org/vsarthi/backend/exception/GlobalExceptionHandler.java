@@ -21,6 +21,14 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ExceptionHandler(YouTubeUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleYouTubeUnavailableException(YouTubeUnavailableException ex) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", ex.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleException(Exception ex) {
         Map<String, String> errorResponse = new HashMap<>();
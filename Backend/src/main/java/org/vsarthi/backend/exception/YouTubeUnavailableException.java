@@ -0,0 +1,16 @@
+package org.vsarthi.backend.exception;
+
+/**
+ * YouTube couldn't be asked: it failed or timed out, too many lookups are running, or lookups are
+ * paused after repeated failures.
+ */
+public class YouTubeUnavailableException extends RuntimeException {
+
+    public YouTubeUnavailableException(String message) {
+        super(message);
+    }
+
+    public YouTubeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package org.vsarthi.backend.model;
+
+/**
+ * The fields of a user that authentication needs, loaded without any of the user's collections.
+ */
+public record AuthUser(Long id, String email, String username, String password) {
+}
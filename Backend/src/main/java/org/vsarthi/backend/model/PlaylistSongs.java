@@ -6,9 +6,11 @@ import lombok.Data;
 
 @Entity
 @Data
+@Table(indexes = @Index(name = "idx_playlist_songs_video_id", columnList = "video_id"))
 public class PlaylistSongs {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlist_songs_seq")
+    @SequenceGenerator(name = "playlist_songs_seq", sequenceName = "playlist_songs_seq", allocationSize = 50)
     private Long id;
 
     @JsonBackReference
@@ -26,6 +28,9 @@ public class PlaylistSongs {
     @Column(nullable = false)
     private String youtubeLink;
 
+    @Column(name = "video_id", length = 11)
+    private String videoId;
+
     private String thumbnailUrl;
     private Long duration;
 
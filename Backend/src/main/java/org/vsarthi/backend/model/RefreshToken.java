@@ -0,0 +1,34 @@
+package org.vsarthi.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_family", columnList = "family"))
+public class RefreshToken {
+
+    // SHA-256 hex digest of the token, the token itself is never stored
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 36)
+    private String family;
+
+    private long expiresAt;
+
+    private long usedAt;
+
+    public RefreshToken(String tokenHash, Long userId, String family, long expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.family = family;
+        this.expiresAt = expiresAt;
+    }
+}
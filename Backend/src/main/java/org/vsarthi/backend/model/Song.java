@@ -13,9 +13,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
@@ -24,15 +26,23 @@ import lombok.Setter;
 
 @Data
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"youtube_link", "room_id"}))
+@Table(uniqueConstraints = @UniqueConstraint(name = Song.ROOM_VIDEO_CONSTRAINT, columnNames = {"room_id", "video_id"}),
+        indexes = @Index(name = "idx_song_video_id", columnList = "video_id"))
 public class Song {
+    // A video can be queued once per room, whatever link it was added with
+    public static final String ROOM_VIDEO_CONSTRAINT = "uk_song_room_video";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "song_seq")
+    @SequenceGenerator(name = "song_seq", sequenceName = "song_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "youtube_link")
     private String youtubeLink;
 
+    @Column(name = "video_id", length = 11)
+    private String videoId;
+
     private String title;
 
     private int upvotes;
@@ -14,15 +14,21 @@ import java.util.Collections;
 @NoArgsConstructor(force = true)
 public class UserPrincipal implements UserDetails {
 
-    private final Users user;
+    private final AuthUser authUser;
 
-    public UserPrincipal(Users user) {
+    // Detached user with only id, username and email set, enough to check ownership and to reference
+    // the user from other entities. Services that need the user's collections load the user themselves.
+    private final Users user;
 
-        this.user = user;
+    public UserPrincipal(AuthUser authUser) {
+        this.authUser = authUser;
+        this.user = new Users();
+        this.user.setId(authUser.id());
+        this.user.setUsername(authUser.username());
+        this.user.setEmail(authUser.email());
     }
 
 
-
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singleton(new SimpleGrantedAuthority("USER"));
@@ -30,16 +36,18 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return authUser.password();
     }
 
+    // The email, as the only unique name a user has. It is what Principal#getName returns, so user
+    // destinations such as /user/queue/votes reach this user's sessions only. The display name is on getUser().
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return authUser.email();
     }
 
     public String getEmail() {
-        return user.getEmail();
+        return authUser.email();
     }
 
     @Override
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.ToString;
 import java.util.List;
 
 @Data
@@ -12,7 +13,8 @@ import java.util.List;
 public class Users {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     private String username;
@@ -25,19 +27,19 @@ public class Users {
     private String oauth2Provider;
     private String oauth2Id;
 
-    @Column(unique = true)
-    private String refreshToken;
-
     @JsonIgnore
-    @OneToMany(mappedBy = "creator", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @ToString.Exclude
+    @OneToMany(mappedBy = "creator", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Room> createdRooms;
 
     @JsonIgnore
-    @OneToMany(mappedBy = "addedBy", fetch = FetchType.EAGER)
+    @ToString.Exclude
+    @OneToMany(mappedBy = "addedBy", fetch = FetchType.LAZY)
     private List<Song> addedSongs;
 
     @JsonIgnore
-    @OneToMany(mappedBy = "user", fetch = FetchType.EAGER)
+    @ToString.Exclude
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private List<Vote> votes;
 
 
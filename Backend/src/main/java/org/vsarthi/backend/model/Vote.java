@@ -9,7 +9,8 @@ import lombok.Data;
 @Table(name = "userVotes", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "song_id"}))
 public class Vote {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_votes_seq")
+    @SequenceGenerator(name = "user_votes_seq", sequenceName = "user_votes_seq", allocationSize = 50)
     private Long id;
 
     private boolean isUpvote;
@@ -2,8 +2,12 @@ package org.vsarthi.backend.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.vsarthi.backend.model.Room;
 import org.vsarthi.backend.model.Users;
 
@@ -12,5 +16,22 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     Optional<Room> findByShareableLink(String shareableLink);
 
 
-    List<Room> findAllByJoinedUsersContaining(Users user);
+    // A join, so the database starts from the user's memberships instead of checking every room
+    @Query("SELECT r FROM Room r JOIN r.joinedUsers u WHERE u.id = :#{#user.id}")
+    List<Room> findAllByJoinedUsersContaining(@Param("user") Users user);
+
+    @Query("SELECT u.id FROM Room r JOIN r.joinedUsers u WHERE r.id = :roomId")
+    Set<Long> findJoinedUserIds(@Param("roomId") Long roomId);
+
+    @Query("SELECT COUNT(u) FROM Room r JOIN r.joinedUsers u WHERE r.id = :roomId AND u.id = :userId")
+    long countJoinedUser(@Param("roomId") Long roomId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM room_users WHERE room_id = :roomId", nativeQuery = true)
+    int deleteJoinedUsers(@Param("roomId") Long roomId);
+
+    // Songs and votes of the room have to be deleted first
+    @Modifying
+    @Query("DELETE FROM Room r WHERE r.id = :roomId")
+    int deleteRoomById(@Param("roomId") Long roomId);
 }
\ No newline at end of file
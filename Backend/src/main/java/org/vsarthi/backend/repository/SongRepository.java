@@ -1,9 +1,11 @@
 package org.vsarthi.backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.vsarthi.backend.model.Song;
@@ -13,7 +15,8 @@ public interface SongRepository extends JpaRepository<Song, Long> {
     @Query("SELECT s FROM Song s WHERE s.room.id = :roomId ORDER BY s.upvotes DESC, s.queuePosition ASC NULLS LAST")
     List<Song> findByRoomIdOrderByUpvotesDesc(@Param("roomId") Long roomId);
 
-    Optional<Song> findByYoutubeLinkAndRoomId(String youtubeLink, Long roomId);
+    @Query("SELECT s.videoId FROM Song s WHERE s.room.id = :roomId AND s.videoId IN :videoIds")
+    List<String> findVideoIdsByRoomIdAndVideoIdIn(@Param("roomId") Long roomId, @Param("videoIds") Collection<String> videoIds);
 
     Optional<Song> findByRoomIdAndIsCurrent(Long roomId, boolean isCurrent);
 
@@ -24,4 +27,15 @@ public interface SongRepository extends JpaRepository<Song, Long> {
     List<Song> findByRoomId(Long roomId);
 
     List<Song> findAllByRoomIdAndIsCurrent(Long roomId, boolean b);
+
+    @Query("SELECT s.room.id FROM Song s WHERE s.id = :songId")
+    Optional<Long> findRoomIdById(@Param("songId") Long songId);
+
+    @Modifying
+    @Query("UPDATE Song s SET s.upvotes = 0 WHERE s.room.id = :roomId")
+    int resetUpvotesByRoomId(@Param("roomId") Long roomId);
+
+    @Modifying
+    @Query("DELETE FROM Song s WHERE s.room.id = :roomId")
+    int deleteByRoomId(@Param("roomId") Long roomId);
 }
\ No newline at end of file
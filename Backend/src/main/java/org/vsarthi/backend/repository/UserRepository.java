@@ -1,10 +1,21 @@
 package org.vsarthi.backend.repository;
 
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.vsarthi.backend.model.AuthUser;
 import org.vsarthi.backend.model.Users;
 
 public interface UserRepository extends JpaRepository<Users, Long> {
     Users findByUsername(String username);
     Users findByEmail(String email);
     Users findByOauth2Id(String oauth2Id);
+
+    @Query("SELECT new org.vsarthi.backend.model.AuthUser(u.id, u.email, u.username, u.password) FROM Users u WHERE u.email = :email")
+    Optional<AuthUser> findAuthUserByEmail(@Param("email") String email);
+
+    @Query("SELECT new org.vsarthi.backend.model.AuthUser(u.id, u.email, u.username, u.password) FROM Users u WHERE u.id = :id")
+    Optional<AuthUser> findAuthUserById(@Param("id") Long id);
 }
@@ -3,7 +3,9 @@ package org.vsarthi.backend.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.vsarthi.backend.model.Song;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.vsarthi.backend.model.Users;
 import org.vsarthi.backend.model.Vote;
 
@@ -11,9 +13,18 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
 
 
 
-    void deleteBySong(Song endedSong);
+    @Modifying
+    @Query("DELETE FROM Vote v WHERE v.song.id = :songId")
+    int deleteBySongId(@Param("songId") Long songId);
+
+    @Modifying
+    @Query("DELETE FROM Vote v WHERE v.song.id IN (SELECT s.id FROM Song s WHERE s.room.id = :roomId)")
+    int deleteByRoomId(@Param("roomId") Long roomId);
 
     boolean existsBySongIdAndUserId(Long songId, Long userId);
     long countBySongId(Long songId);
 
+    @Query("SELECT v.user.id FROM Vote v WHERE v.song.id = :songId")
+    List<Long> findUserIdsBySongId(@Param("songId") Long songId);
+
 }
\ No newline at end of file
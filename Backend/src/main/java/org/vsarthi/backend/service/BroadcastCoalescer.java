@@ -0,0 +1,103 @@
+package org.vsarthi.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Collapses bursts of broadcasts for the same key into one. A broadcast goes out once no new request
+ * arrived for the window, or at the latest after the maximum delay. Only the last requested publish
+ * runs, so it should read the state it sends at the time it runs.
+ */
+@Component
+public class BroadcastCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastCoalescer.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final long maxDelayNanos;
+
+    public BroadcastCoalescer(@Value("${hive.broadcast.coalesce.window-ms:75}") long windowMs,
+                              @Value("${hive.broadcast.coalesce.max-delay-ms:250}") long maxDelayMs) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(windowMs, maxDelayMs));
+    }
+
+    public void submit(String key, Runnable publish) {
+        if (windowNanos == 0) {
+            publish.run();
+            return;
+        }
+
+        long now = System.nanoTime();
+        boolean[] schedule = new boolean[1];
+        pending.compute(key, (k, existing) -> {
+            if (existing == null) {
+                schedule[0] = true;
+                return new Pending(publish, now);
+            }
+            existing.publish = publish;
+            existing.lastAt = now;
+            return existing;
+        });
+        if (schedule[0]) {
+            scheduler.schedule(() -> flush(key), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flush(String key) {
+        long now = System.nanoTime();
+        long[] delay = {0};
+        Runnable[] due = new Runnable[1];
+        pending.computeIfPresent(key, (k, entry) -> {
+            long next = Math.min(entry.lastAt + windowNanos, entry.firstAt + maxDelayNanos);
+            if (next - now > 0) {
+                delay[0] = next - now;
+                return entry;
+            }
+            due[0] = entry.publish;
+            return null;
+        });
+
+        if (due[0] != null) {
+            run(key, due[0]);
+        } else if (delay[0] > 0) {
+            scheduler.schedule(() -> flush(key), delay[0], TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void run(String key, Runnable publish) {
+        try {
+            publish.run();
+        } catch (Exception e) {
+            logger.error("Error publishing coalesced broadcast " + key, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private static final class Pending {
+        private Runnable publish;
+        private final long firstAt;
+        private long lastAt;
+
+        private Pending(Runnable publish, long now) {
+            this.publish = publish;
+            this.firstAt = now;
+            this.lastAt = now;
+        }
+    }
+}
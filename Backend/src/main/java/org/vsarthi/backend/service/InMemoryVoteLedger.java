@@ -0,0 +1,178 @@
+package org.vsarthi.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.repository.SongRepository;
+import org.vsarthi.backend.repository.VoteRepository;
+
+/**
+ * In-memory vote counters and voter sets per song, kept per room so that a room's songs are read and
+ * dropped together. The state of a song is loaded from the votes table on first access, which is also
+ * how it is rebuilt after a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "hive.votes.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryVoteLedger implements VoteLedger {
+
+    private final SongRepository songRepository;
+    private final VoteRepository voteRepository;
+    private final Map<Long, Map<Long, SongVotes>> rooms = new ConcurrentHashMap<>();
+    private final Map<Long, Long> songRooms = new ConcurrentHashMap<>();
+    private final Queue<PendingVote> pending = new ConcurrentLinkedQueue<>();
+    private final Object flushLock = new Object();
+
+    public InMemoryVoteLedger(SongRepository songRepository, VoteRepository voteRepository) {
+        this.songRepository = songRepository;
+        this.voteRepository = voteRepository;
+    }
+
+    @Override
+    public Long getRoomId(Long songId) {
+        return load(songId).roomId;
+    }
+
+    @Override
+    public int record(Long songId, Long userId) {
+        SongVotes votes = load(songId);
+        if (!votes.voters.add(userId)) {
+            return -1;
+        }
+        pending.add(new PendingVote(songId, userId));
+        return votes.count.incrementAndGet();
+    }
+
+    @Override
+    public Optional<Integer> getCount(Long songId) {
+        SongVotes votes = find(songId);
+        return votes != null ? Optional.of(votes.count.get()) : Optional.empty();
+    }
+
+    @Override
+    public Map<Long, Integer> getRoomCounts(Long roomId) {
+        Map<Long, Integer> counts = new HashMap<>();
+        rooms.getOrDefault(roomId, Map.of()).forEach((songId, votes) -> counts.put(songId, votes.count.get()));
+        return counts;
+    }
+
+    @Override
+    public void reset(Long songId) {
+        List<PendingVote> held = takePending(vote -> vote.songId().equals(songId));
+        AfterCommit.run(() -> clear(find(songId)), () -> pending.addAll(held));
+    }
+
+    @Override
+    public void forget(Long songId) {
+        List<PendingVote> held = takePending(vote -> vote.songId().equals(songId));
+        AfterCommit.run(() -> {
+            Long roomId = songRooms.remove(songId);
+            if (roomId != null) {
+                rooms.getOrDefault(roomId, Map.of()).remove(songId);
+            }
+        }, () -> pending.addAll(held));
+    }
+
+    @Override
+    public void resetRoom(Long roomId) {
+        Map<Long, SongVotes> songs = rooms.getOrDefault(roomId, Map.of());
+        List<PendingVote> held = takePending(vote -> songs.containsKey(vote.songId()));
+        AfterCommit.run(() -> songs.values().forEach(InMemoryVoteLedger::clear), () -> pending.addAll(held));
+    }
+
+    @Override
+    public void forgetRoom(Long roomId) {
+        Map<Long, SongVotes> songs = rooms.getOrDefault(roomId, Map.of());
+        List<PendingVote> held = takePending(vote -> songs.containsKey(vote.songId()));
+        AfterCommit.run(() -> {
+            Map<Long, SongVotes> forgotten = rooms.remove(roomId);
+            if (forgotten != null) {
+                forgotten.keySet().forEach(songRooms::remove);
+            }
+        }, () -> pending.addAll(held));
+    }
+
+    @Override
+    public int flush(int batchSize, Consumer<List<PendingVote>> writer) {
+        synchronized (flushLock) {
+            List<PendingVote> batch = new ArrayList<>(Math.min(batchSize, 1024));
+            PendingVote vote;
+            while (batch.size() < batchSize && (vote = pending.poll()) != null) {
+                batch.add(vote);
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                writer.accept(batch);
+            } catch (RuntimeException e) {
+                pending.addAll(batch);
+                throw e;
+            }
+            return batch.size();
+        }
+    }
+
+    /**
+     * Takes the matching votes out of the pending ones, after waiting for a running flush, so that none
+     * of them is written while the caller deletes the stored votes. They are put back if its transaction
+     * rolls back.
+     */
+    private List<PendingVote> takePending(Predicate<PendingVote> filter) {
+        List<PendingVote> taken = new ArrayList<>();
+        synchronized (flushLock) {
+            pending.removeIf(vote -> filter.test(vote) && taken.add(vote));
+        }
+        return taken;
+    }
+
+    private SongVotes find(Long songId) {
+        Long roomId = songRooms.get(songId);
+        return roomId != null ? rooms.getOrDefault(roomId, Map.of()).get(songId) : null;
+    }
+
+    private SongVotes load(Long songId) {
+        SongVotes found = find(songId);
+        if (found != null) {
+            return found;
+        }
+        Long roomId = songRepository.findRoomIdById(songId)
+                .orElseThrow(() -> new IllegalArgumentException("Song not found"));
+        return rooms.computeIfAbsent(roomId, id -> new ConcurrentHashMap<>()).computeIfAbsent(songId, id -> {
+            SongVotes votes = new SongVotes(roomId);
+            votes.voters.addAll(voteRepository.findUserIdsBySongId(id));
+            votes.count.set(votes.voters.size());
+            songRooms.put(id, roomId);
+            return votes;
+        });
+    }
+
+    private static void clear(SongVotes votes) {
+        if (votes != null) {
+            votes.voters.clear();
+            votes.count.set(0);
+        }
+    }
+
+    private static final class SongVotes {
+        private final Long roomId;
+        private final Set<Long> voters = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger count = new AtomicInteger();
+
+        private SongVotes(Long roomId) {
+            this.roomId = roomId;
+        }
+    }
+}
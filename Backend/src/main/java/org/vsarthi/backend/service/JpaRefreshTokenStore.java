@@ -0,0 +1,66 @@
+package org.vsarthi.backend.service;
+
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.vsarthi.backend.model.RefreshToken;
+import org.vsarthi.backend.repository.RefreshTokenRepository;
+
+/**
+ * Refresh token store in its own table, looked up by primary key, so refreshing never touches the users table.
+ */
+@Component
+@ConditionalOnProperty(name = "hive.auth.refresh-store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+    private static final Logger logger = LoggerFactory.getLogger(JpaRefreshTokenStore.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    public JpaRefreshTokenStore(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    @Override
+    public void save(String tokenHash, StoredRefreshToken token) {
+        refreshTokenRepository.save(new RefreshToken(tokenHash, token.userId(), token.family(), token.expiresAt()));
+    }
+
+    @Override
+    public Optional<StoredRefreshToken> find(String tokenHash) {
+        return refreshTokenRepository.findById(tokenHash).map(JpaRefreshTokenStore::toStored);
+    }
+
+    @Override
+    @Transactional
+    public Optional<StoredRefreshToken> markUsed(String tokenHash, long usedAt) {
+        boolean marked = refreshTokenRepository.markUsed(tokenHash, usedAt) == 1;
+        return refreshTokenRepository.findById(tokenHash)
+                .map(JpaRefreshTokenStore::toStored)
+                .map(token -> marked ? new StoredRefreshToken(token.userId(), token.family(), token.expiresAt(), 0) : token);
+    }
+
+    @Override
+    @Transactional
+    public void deleteFamily(String family) {
+        refreshTokenRepository.deleteByFamily(family);
+    }
+
+    // Used tokens are kept until they expire to detect their reuse
+    @Scheduled(fixedDelayString = "${hive.auth.refresh-token.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(System.currentTimeMillis());
+        if (deleted > 0) {
+            logger.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private static StoredRefreshToken toStored(RefreshToken token) {
+        return new StoredRefreshToken(token.getUserId(), token.getFamily(), token.getExpiresAt(), token.getUsedAt());
+    }
+}
@@ -1,10 +1,11 @@
 package org.vsarthi.backend.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.vsarthi.backend.model.UserPrincipal;
 import org.vsarthi.backend.model.Users;
@@ -13,52 +14,60 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String USERNAME_CLAIM = "username";
+    public static final String VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.access-token.expiration}")
     private long accessTokenExpiration;
 
-    @Value("${jwt.refresh-token.expiration}")
-    private long refreshTokenExpiration;
+    private SecretKey key;
+    private JwtParser parser;
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(key).build();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(getKey()).build().parseSignedClaims(token).getPayload();
+    /**
+     * Verifies the token and returns its claims. Callers that need several claims should parse once
+     * and pass the claims around instead of the token.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean validateToken(String token, UserPrincipal userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getEmail()) && !isTokenExpired(token));
-    }
-
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return validateToken(parseClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean validateToken(Claims claims, UserPrincipal userDetails) {
+        return claims.getSubject().equals(userDetails.getEmail()) && !isTokenExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public String extractEmail(String token) {
+        return parseClaims(token).getSubject();
     }
 
-    public String generateAccessToken(Users user) {
-        return generateToken(new HashMap<>(), user, accessTokenExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    public String generateRefreshToken(Users user) {
-        return generateToken(new HashMap<>(), user, refreshTokenExpiration);
+    // The access token carries the identity authenticated requests need, so they don't have to load the user
+    public String generateAccessToken(Users user, int version) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(USERNAME_CLAIM, user.getUsername());
+        claims.put(VERSION_CLAIM, version);
+        return generateToken(claims, user, accessTokenExpiration);
     }
 
     private String generateToken(Map<String, Object> extraClaims, Users user, long expiration) {
@@ -67,21 +76,17 @@ public class JwtService {
                 .subject(user.getEmail())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
     }
 
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
-    }
-
     public boolean isTokenAboutToExpire(String accessToken) {
-        Date expiration = extractExpiration(accessToken);
+        Date expiration = parseClaims(accessToken).getExpiration();
         Date now = new Date();
         return expiration.getTime() - now.getTime() < 30000; // 1 minutes in milliseconds
     }
 
     public boolean isTokenValid(String accessToken) {
-        return !isTokenExpired(accessToken);
+        return !isTokenExpired(parseClaims(accessToken));
     }
 }
\ No newline at end of file
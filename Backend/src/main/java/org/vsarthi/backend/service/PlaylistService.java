@@ -5,13 +5,20 @@ import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vsarthi.backend.DTO.BulkImportResult;
+import org.vsarthi.backend.DTO.BulkSongRequest;
+import org.vsarthi.backend.DTO.VideoMetadata;
 import org.vsarthi.backend.model.PlaylistSongs;
 import org.vsarthi.backend.model.Playlists;
 import org.vsarthi.backend.model.Users;
 import org.vsarthi.backend.repository.PlaylistRepository;
 import org.vsarthi.backend.repository.PlaylistSongRepository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,18 +35,21 @@ public class PlaylistService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final YouTubeService youTubeService;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public PlaylistService(PlaylistRepository playlistRepository,
                            PlaylistSongRepository playlistSongRepository,
                            RedisTemplate<String, Object> redisTemplate,
                            YouTubeService youTubeService,
-                           ObjectMapper objectMapper) {
+                           ObjectMapper objectMapper,
+                           TransactionTemplate transactionTemplate) {
         this.playlistRepository = playlistRepository;
         this.playlistSongRepository = playlistSongRepository;
         this.redisTemplate = redisTemplate;
         this.youTubeService = youTubeService;
         this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Transactional
@@ -57,39 +67,122 @@ public class PlaylistService {
         return savedPlaylist;
     }
 
-    @Transactional
+    /**
+     * Looks the video up before the write transaction starts and clears the caches after it commits,
+     * so neither YouTube nor Redis is called while a database connection is held.
+     */
     public PlaylistSongs addSongToPlaylist(Long playlistId, String youtubeLink, Users user) throws Exception {
-        // Find the playlist
-        Playlists playlist = playlistRepository.findById(playlistId)
-                .orElseThrow(() -> new RuntimeException("Playlist not found"));
-
         // Validate and extract YouTube video information
         String videoId = youTubeService.extractVideoId(youtubeLink);
-        if (!youTubeService.isVideoAvailable(videoId)) {
+        VideoMetadata video = youTubeService.getVideoMetadata(videoId);
+        if (!video.found()) {
+            throw new RuntimeException("Video not found");
+        }
+        if (!video.available()) {
             throw new RuntimeException("Video is not available or not embeddable");
         }
 
-        String title = youTubeService.getVideoTitle(videoId);
+        String title = video.title();
         if (title == null || title.trim().isEmpty()) {
             throw new RuntimeException("Could not fetch video title");
         }
 
-        // Create and save the new song
-        PlaylistSongs song = new PlaylistSongs();
-        song.setPlaylist(playlist);
-        song.setSongName(title);
-        song.setYoutubeLink(youtubeLink);
-        song.setAddedBy(user);
-        song.setPosition(playlist.getSongs().size() + 1);
+        PlaylistSongs savedSong = transactionTemplate.execute(status -> {
+            Playlists playlist = playlistRepository.findById(playlistId)
+                    .orElseThrow(() -> new RuntimeException("Playlist not found"));
+
+            // Create and save the new song
+            PlaylistSongs song = new PlaylistSongs();
+            song.setPlaylist(playlist);
+            song.setSongName(title);
+            song.setYoutubeLink(youtubeLink);
+            song.setVideoId(videoId);
+            song.setThumbnailUrl(video.thumbnailUrl());
+            song.setDuration(video.durationSeconds());
+            song.setAddedBy(user);
+            song.setPosition(playlist.getSongs().size() + 1);
+
+            return playlistSongRepository.save(song);
+        });
+
+        clearPlaylistCaches(playlistId, savedSong.getPlaylist().getGenre());
+        return savedSong;
+    }
+
+    /**
+     * Adds every valid link at the end of the playlist in one short transaction: metadata is looked up
+     * in batches before it starts and the songs are inserted in JDBC batches. Invalid and
+     * unavailable links are reported.
+     */
+    public BulkImportResult<PlaylistSongs> addSongsToPlaylist(Long playlistId, List<String> youtubeLinks, Users user) throws Exception {
+        if (youtubeLinks == null || youtubeLinks.isEmpty()) {
+            throw new IllegalArgumentException("No songs to add");
+        }
+        if (youtubeLinks.size() > BulkSongRequest.MAX_LINKS) {
+            throw new IllegalArgumentException("At most " + BulkSongRequest.MAX_LINKS + " songs can be added at once");
+        }
+
+        Map<String, String> rejected = new LinkedHashMap<>();
+        Map<String, String> videoIds = new LinkedHashMap<>();
+        for (String youtubeLink : youtubeLinks) {
+            try {
+                videoIds.put(youtubeLink, youTubeService.extractVideoId(youtubeLink));
+            } catch (RuntimeException e) {
+                rejected.put(youtubeLink, e.getMessage());
+            }
+        }
+
+        Map<String, VideoMetadata> videos = youTubeService.getVideoMetadata(videoIds.values());
+        Map<String, VideoMetadata> playable = new LinkedHashMap<>();
+        for (Map.Entry<String, String> link : videoIds.entrySet()) {
+            VideoMetadata video = videos.get(link.getValue());
+            if (video == null || !video.found()) {
+                rejected.put(link.getKey(), "Video not found");
+            } else if (!video.available()) {
+                rejected.put(link.getKey(), "Video is not available or not embeddable");
+            } else if (video.title() == null || video.title().trim().isEmpty()) {
+                rejected.put(link.getKey(), "Could not fetch video title");
+            } else {
+                playable.put(link.getKey(), video);
+            }
+        }
 
-        PlaylistSongs savedSong = playlistSongRepository.save(song);
+        AddedSongs added = transactionTemplate.execute(status -> {
+            Playlists playlist = playlistRepository.findById(playlistId)
+                    .orElseThrow(() -> new RuntimeException("Playlist not found"));
+            if (playable.isEmpty()) {
+                return new AddedSongs(List.of(), playlist.getGenre());
+            }
+            int position = playlist.getSongs().size();
+            List<PlaylistSongs> songs = new ArrayList<>();
+            for (Map.Entry<String, VideoMetadata> link : playable.entrySet()) {
+                PlaylistSongs song = new PlaylistSongs();
+                song.setPlaylist(playlist);
+                song.setSongName(link.getValue().title());
+                song.setYoutubeLink(link.getKey());
+                song.setVideoId(link.getValue().videoId());
+                song.setThumbnailUrl(link.getValue().thumbnailUrl());
+                song.setDuration(link.getValue().durationSeconds());
+                song.setAddedBy(user);
+                song.setPosition(++position);
+                songs.add(song);
+            }
+            return new AddedSongs(playlistSongRepository.saveAll(songs), playlist.getGenre());
+        });
 
-        // Clear relevant caches
+        if (!added.songs().isEmpty()) {
+            clearPlaylistCaches(playlistId, added.genre());
+        }
+        return new BulkImportResult<>(added.songs(), rejected);
+    }
+
+    private record AddedSongs(List<PlaylistSongs> songs, String genre) {
+    }
+
+    private void clearPlaylistCaches(Long playlistId, String genre) {
         clearPlaylistCache(playlistId);
-        clearCacheForGenre(playlist.getGenre());
+        clearCacheForGenre(genre);
         clearAllPlaylistsCache();
-
-        return savedSong;
     }
 
     public List<Playlists> getPlaylistsByGenre(String genre) {
@@ -0,0 +1,217 @@
+package org.vsarthi.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+import org.vsarthi.backend.DTO.QueueChange;
+import org.vsarthi.backend.DTO.QueueDelta;
+import org.vsarthi.backend.DTO.QueueSnapshot;
+import org.vsarthi.backend.model.Song;
+
+/**
+ * Publishes room queue changes on {@code /topic/room/{roomId}/songs}. In {@code full} mode the whole
+ * song list is sent, in {@code delta} mode only a versioned {@link QueueDelta} against the previously
+ * published state. Clients that miss a version fetch a {@link QueueSnapshot} and continue from there.
+ */
+@Service
+public class QueueBroadcaster {
+
+    private final RoomQueueManager roomQueueManager;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final Map<Long, PublishedState> states = new ConcurrentHashMap<>();
+
+    @Value("${hive.queue.broadcast-mode:full}")
+    private String broadcastMode;
+
+    public QueueBroadcaster(RoomQueueManager roomQueueManager, SimpMessageSendingOperations messagingTemplate, BroadcastCoalescer broadcastCoalescer) {
+        this.roomQueueManager = roomQueueManager;
+        this.messagingTemplate = messagingTemplate;
+        this.broadcastCoalescer = broadcastCoalescer;
+    }
+
+    /**
+     * Schedules a broadcast of the room's queue. Changes within the coalescing window go out as one message.
+     */
+    public void publish(Long roomId) {
+        broadcastCoalescer.submit("songs:" + roomId, () -> roomQueueManager.find(roomId).ifPresent(queue -> publishNow(roomId, queue)));
+    }
+
+    private void publishNow(Long roomId, RoomQueue queue) {
+        if (!isDeltaMode()) {
+            messagingTemplate.convertAndSend(destination(roomId), queue.snapshot());
+            return;
+        }
+
+        PublishedState state = states.computeIfAbsent(roomId, id -> new PublishedState());
+        synchronized (state) {
+            publishChanges(roomId, state, queue.snapshot());
+        }
+    }
+
+    public QueueSnapshot snapshot(Long roomId) {
+        PublishedState state = states.computeIfAbsent(roomId, id -> new PublishedState());
+        synchronized (state) {
+            // Announce pending changes first so the snapshot matches its version exactly
+            List<Song> songs = roomQueueManager.snapshot(roomId);
+            if (isDeltaMode()) {
+                publishChanges(roomId, state, songs);
+            } else {
+                state.diff(songs);
+            }
+            return new QueueSnapshot(roomId, state.version, songs);
+        }
+    }
+
+    public void forget(Long roomId) {
+        states.remove(roomId);
+    }
+
+    private void publishChanges(Long roomId, PublishedState state, List<Song> songs) {
+        List<QueueChange> changes = state.diff(songs);
+        if (!changes.isEmpty()) {
+            messagingTemplate.convertAndSend(destination(roomId), new QueueDelta(roomId, state.version, changes));
+        }
+    }
+
+    private boolean isDeltaMode() {
+        return "delta".equalsIgnoreCase(broadcastMode);
+    }
+
+    private static String destination(Long roomId) {
+        return "/topic/room/" + roomId + "/songs";
+    }
+
+    /**
+     * The queue as last published to subscribers.
+     */
+    private static final class PublishedState {
+        private long version;
+        private Long currentId;
+        private List<Long> order = List.of();
+        private Map<Long, Integer> upvotes = Map.of();
+
+        /**
+         * Computes the changes from the published state to {@code songs}, adopts {@code songs} as the new
+         * published state and bumps the version if anything changed.
+         */
+        private List<QueueChange> diff(List<Song> songs) {
+            Song current = !songs.isEmpty() && songs.getFirst().isCurrent() ? songs.getFirst() : null;
+            List<Song> queued = current != null ? songs.subList(1, songs.size()) : songs;
+
+            Map<Long, Integer> oldIndex = new HashMap<>(order.size() * 2);
+            for (int i = 0; i < order.size(); i++) {
+                oldIndex.put(order.get(i), i);
+            }
+            Set<Long> present = new HashSet<>(songs.size() * 2);
+            Map<Long, Integer> newUpvotes = new HashMap<>(songs.size() * 2);
+            List<Long> newOrder = new ArrayList<>(queued.size());
+            for (Song song : songs) {
+                present.add(song.getId());
+                newUpvotes.put(song.getId(), song.getUpvotes());
+            }
+            for (Song song : queued) {
+                newOrder.add(song.getId());
+            }
+
+            List<QueueChange> changes = new ArrayList<>();
+            for (Long songId : upvotes.keySet()) {
+                if (!present.contains(songId)) {
+                    changes.add(new QueueChange(QueueChange.Type.REMOVED, songId));
+                }
+            }
+
+            Long newCurrentId = current != null ? current.getId() : null;
+            if (!Objects.equals(currentId, newCurrentId)) {
+                QueueChange nowPlaying = new QueueChange(QueueChange.Type.NOW_PLAYING, newCurrentId);
+                nowPlaying.setUpvotes(current != null ? current.getUpvotes() : null);
+                changes.add(nowPlaying);
+            } else if (current != null && !Objects.equals(upvotes.get(newCurrentId), current.getUpvotes())) {
+                QueueChange votes = new QueueChange(QueueChange.Type.VOTES, newCurrentId);
+                votes.setUpvotes(current.getUpvotes());
+                changes.add(votes);
+            }
+
+            // Songs on a longest run that kept its relative order stay put, every other song is (re)inserted
+            boolean[] stable = longestStableRun(newOrder, oldIndex);
+            List<QueueChange> voteChanges = new ArrayList<>();
+            for (int i = 0; i < queued.size(); i++) {
+                Song song = queued.get(i);
+                QueueChange change;
+                if (stable[i]) {
+                    if (Objects.equals(upvotes.get(song.getId()), song.getUpvotes())) {
+                        continue;
+                    }
+                    change = new QueueChange(QueueChange.Type.VOTES, song.getId());
+                    voteChanges.add(change);
+                } else if (oldIndex.containsKey(song.getId())) {
+                    change = new QueueChange(QueueChange.Type.MOVED, song.getId());
+                    changes.add(change);
+                } else {
+                    change = new QueueChange(QueueChange.Type.ADDED, song.getId());
+                    change.setTitle(song.getTitle());
+                    change.setYoutubeLink(song.getYoutubeLink());
+                    change.setAddedBy(song.getAddedBy() != null ? song.getAddedBy().getUsername() : null);
+                    changes.add(change);
+                }
+                change.setPosition(i + 1);
+                change.setUpvotes(song.getUpvotes());
+            }
+            changes.addAll(voteChanges);
+
+            currentId = newCurrentId;
+            order = newOrder;
+            upvotes = newUpvotes;
+            if (!changes.isEmpty()) {
+                version++;
+            }
+            return changes;
+        }
+
+        private static boolean[] longestStableRun(List<Long> newOrder, Map<Long, Integer> oldIndex) {
+            int n = newOrder.size();
+            int[] tails = new int[n];
+            int[] previous = new int[n];
+            int length = 0;
+            Arrays.fill(previous, -1);
+
+            for (int i = 0; i < n; i++) {
+                Integer old = oldIndex.get(newOrder.get(i));
+                if (old == null) {
+                    continue;
+                }
+                int lo = 0;
+                int hi = length;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (oldIndex.get(newOrder.get(tails[mid])) < old) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                previous[i] = lo > 0 ? tails[lo - 1] : -1;
+                tails[lo] = i;
+                if (lo == length) {
+                    length++;
+                }
+            }
+
+            boolean[] stable = new boolean[n];
+            for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+                stable[i] = true;
+            }
+            return stable;
+        }
+    }
+}
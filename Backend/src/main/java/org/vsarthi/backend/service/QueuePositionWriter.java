@@ -0,0 +1,66 @@
+package org.vsarthi.backend.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Persists recomputed queue positions of the resident room queues. Only positions that actually
+ * changed are written, as one JDBC batch per room, and in write-behind mode all changes made within one
+ * interval are written together.
+ */
+@Service
+public class QueuePositionWriter {
+    private static final Logger logger = LoggerFactory.getLogger(QueuePositionWriter.class);
+    private static final String UPDATE_POSITION = "UPDATE song SET queue_position = ? WHERE id = ?";
+
+    private final RoomQueueManager roomQueueManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${hive.queue.write-behind.enabled:true}")
+    private boolean writeBehind;
+
+    public QueuePositionWriter(RoomQueueManager roomQueueManager, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.roomQueueManager = roomQueueManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    @Scheduled(fixedDelayString = "${hive.queue.write-behind.interval-ms:2000}")
+    public void flushAll() {
+        for (RoomQueue queue : roomQueueManager.getLoadedQueues()) {
+            flush(queue);
+        }
+    }
+
+    public void flush(RoomQueue queue) {
+        Map<Long, Integer> positions = queue.drainDirtyPositions();
+        if (positions.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Map.Entry<Long, Integer>> updates = List.copyOf(positions.entrySet());
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPDATE_POSITION, updates, updates.size(), (ps, position) -> {
+                        ps.setObject(1, position.getValue());
+                        ps.setLong(2, position.getKey());
+                    }));
+        } catch (Exception e) {
+            logger.error("Error writing queue positions for room " + queue.getRoomId(), e);
+            queue.restoreDirtyPositions(positions);
+        }
+    }
+}
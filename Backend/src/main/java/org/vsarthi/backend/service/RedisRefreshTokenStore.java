@@ -0,0 +1,93 @@
+package org.vsarthi.backend.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refresh token store in Redis. Every token is a hash expiring with the token, and every family a set of
+ * its token digests, expiring with its newest token.
+ */
+@Component
+@ConditionalOnProperty(name = "hive.auth.refresh-store", havingValue = "redis")
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    // KEYS: token; ARGV: used at
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> MARK_USED = new DefaultRedisScript<>("""
+            local token = redis.call('HMGET', KEYS[1], 'userId', 'family', 'expiresAt', 'usedAt')
+            if not token[1] then return {} end
+            if token[4] == '0' then redis.call('HSET', KEYS[1], 'usedAt', ARGV[1]) end
+            return token
+            """, List.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public RedisRefreshTokenStore(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void save(String tokenHash, StoredRefreshToken token) {
+        Date expiresAt = new Date(token.expiresAt());
+        redisTemplate.opsForHash().putAll(tokenKey(tokenHash), Map.of(
+                "userId", token.userId().toString(),
+                "family", token.family(),
+                "expiresAt", Long.toString(token.expiresAt()),
+                "usedAt", Long.toString(token.usedAt())));
+        redisTemplate.expireAt(tokenKey(tokenHash), expiresAt);
+        redisTemplate.opsForSet().add(familyKey(token.family()), tokenHash);
+        redisTemplate.expireAt(familyKey(token.family()), expiresAt);
+    }
+
+    @Override
+    public Optional<StoredRefreshToken> find(String tokenHash) {
+        List<Object> token = redisTemplate.opsForHash().multiGet(tokenKey(tokenHash), List.of("userId", "family", "expiresAt", "usedAt"));
+        return toStored(token);
+    }
+
+    @Override
+    public Optional<StoredRefreshToken> markUsed(String tokenHash, long usedAt) {
+        List<?> token = redisTemplate.execute(MARK_USED, List.of(tokenKey(tokenHash)), Long.toString(usedAt));
+        return toStored(token);
+    }
+
+    @Override
+    public void deleteFamily(String family) {
+        Set<Object> tokenHashes = redisTemplate.opsForSet().members(familyKey(family));
+        List<String> keys = new ArrayList<>();
+        keys.add(familyKey(family));
+        if (tokenHashes != null) {
+            tokenHashes.forEach(tokenHash -> keys.add(tokenKey(tokenHash.toString())));
+        }
+        redisTemplate.delete(keys);
+    }
+
+    private static Optional<StoredRefreshToken> toStored(List<?> token) {
+        if (token == null || token.size() < 4 || token.get(0) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new StoredRefreshToken(
+                Long.valueOf(token.get(0).toString()),
+                token.get(1).toString(),
+                Long.parseLong(token.get(2).toString()),
+                Long.parseLong(token.get(3).toString())));
+    }
+
+    private static String tokenKey(String tokenHash) {
+        return "refresh:token:" + tokenHash;
+    }
+
+    private static String familyKey(String family) {
+        return "refresh:family:" + family;
+    }
+}
@@ -0,0 +1,299 @@
+package org.vsarthi.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.repository.SongRepository;
+import org.vsarthi.backend.repository.VoteRepository;
+
+/**
+ * Vote ledger shared by all nodes through Redis. Every song has a set of voter ids and every room a
+ * sorted set ranking its songs; a vote updates both and queues itself for the {@link VoteWriter} in a
+ * single script call. The ranking score is {@code upvotes * RANK_STEP - songId}, so songs with equal
+ * votes rank in the order they were added.
+ */
+@Component
+@ConditionalOnProperty(name = "hive.votes.backend", havingValue = "redis")
+public class RedisVoteLedger implements VoteLedger {
+
+    static final String PENDING_KEY = "votes:pending";
+    private static final long RANK_STEP = 10_000_000_000L;
+
+    // KEYS: voters, ranking; ARGV: song id, rank step, voter ids
+    private static final RedisScript<Long> SEED = new DefaultRedisScript<>("""
+            if redis.call('ZSCORE', KEYS[2], ARGV[1]) then return 0 end
+            for i = 3, #ARGV do redis.call('SADD', KEYS[1], ARGV[i]) end
+            redis.call('ZADD', KEYS[2], (#ARGV - 2) * tonumber(ARGV[2]) - tonumber(ARGV[1]), ARGV[1])
+            return 1
+            """, Long.class);
+
+    // KEYS: voters, ranking, pending; ARGV: song id, user id, rank step
+    private static final RedisScript<Long> RECORD = new DefaultRedisScript<>("""
+            if redis.call('SADD', KEYS[1], ARGV[2]) == 0 then return -1 end
+            local score = tonumber(redis.call('ZINCRBY', KEYS[2], ARGV[3], ARGV[1]))
+            redis.call('RPUSH', KEYS[3], ARGV[1] .. ':' .. ARGV[2])
+            return math.floor(score / tonumber(ARGV[3])) + 1
+            """, Long.class);
+
+    // KEYS: voters, ranking; ARGV: song id
+    private static final RedisScript<Long> RESET = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            return redis.call('ZADD', KEYS[2], 'XX', 'CH', -tonumber(ARGV[1]), ARGV[1])
+            """, Long.class);
+
+    // KEYS: ranking. Voter keys are derived from the ranked song ids, which is fine on a single Redis
+    // node but not on a cluster
+    private static final RedisScript<Long> RESET_ROOM = new DefaultRedisScript<>("""
+            local songIds = redis.call('ZRANGE', KEYS[1], 0, -1)
+            for _, songId in ipairs(songIds) do
+                redis.call('DEL', 'votes:song:' .. songId .. ':voters')
+                redis.call('ZADD', KEYS[1], -tonumber(songId), songId)
+            end
+            return #songIds
+            """, Long.class);
+
+    // KEYS: ranking
+    private static final RedisScript<Long> FORGET_ROOM = new DefaultRedisScript<>("""
+            local songIds = redis.call('ZRANGE', KEYS[1], 0, -1)
+            for _, songId in ipairs(songIds) do
+                redis.call('DEL', 'votes:song:' .. songId .. ':voters')
+            end
+            redis.call('DEL', KEYS[1])
+            return #songIds
+            """, Long.class);
+
+    // KEYS: pending; ARGV: batch size
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE = new DefaultRedisScript<>("""
+            local items = redis.call('LRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1)
+            if #items > 0 then redis.call('LTRIM', KEYS[1], #items, -1) end
+            return items
+            """, List.class);
+
+    // KEYS: pending; ARGV: song ids. Returns the removed votes
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE_SONGS = new DefaultRedisScript<>("""
+            local songIds = {}
+            for i = 1, #ARGV do songIds[ARGV[i]] = true end
+            local taken = {}
+            for _, item in ipairs(redis.call('LRANGE', KEYS[1], 0, -1)) do
+                if songIds[string.match(item, '^(%d+):')] then table.insert(taken, item) end
+            end
+            for _, item in ipairs(taken) do redis.call('LREM', KEYS[1], 1, item) end
+            return taken
+            """, List.class);
+
+    private final SongRepository songRepository;
+    private final VoteRepository voteRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Map<Long, Long> roomIds = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    public RedisVoteLedger(SongRepository songRepository, VoteRepository voteRepository, RedisTemplate<String, Object> redisTemplate) {
+        this.songRepository = songRepository;
+        this.voteRepository = voteRepository;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Long getRoomId(Long songId) {
+        return roomIds.computeIfAbsent(songId, id -> {
+            Long roomId = songRepository.findRoomIdById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Song not found"));
+            seed(id, roomId);
+            return roomId;
+        });
+    }
+
+    @Override
+    public int record(Long songId, Long userId) {
+        Long roomId = getRoomId(songId);
+        Long count = redisTemplate.execute(RECORD, List.of(votersKey(songId), rankingKey(roomId), PENDING_KEY),
+                songId.toString(), userId.toString(), Long.toString(RANK_STEP));
+        return count != null ? count.intValue() : -1;
+    }
+
+    @Override
+    public Optional<Integer> getCount(Long songId) {
+        Long roomId = roomIds.get(songId);
+        if (roomId == null) {
+            roomId = songRepository.findRoomIdById(songId).orElse(null);
+            if (roomId == null) {
+                return Optional.empty();
+            }
+        }
+        Double score = redisTemplate.opsForZSet().score(rankingKey(roomId), songId.toString());
+        return Optional.ofNullable(score).map(RedisVoteLedger::toCount);
+    }
+
+    @Override
+    public Map<Long, Integer> getRoomCounts(Long roomId) {
+        Set<ZSetOperations.TypedTuple<Object>> ranking = redisTemplate.opsForZSet().rangeWithScores(rankingKey(roomId), 0, -1);
+        Map<Long, Integer> counts = new HashMap<>();
+        if (ranking != null) {
+            for (ZSetOperations.TypedTuple<Object> entry : ranking) {
+                if (entry.getValue() != null && entry.getScore() != null) {
+                    counts.put(Long.valueOf(entry.getValue().toString()), toCount(entry.getScore()));
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void reset(Long songId) {
+        Long roomId = getRoomId(songId);
+        List<?> held = takePending(List.of(songId));
+        AfterCommit.run(() -> redisTemplate.execute(RESET, List.of(votersKey(songId), rankingKey(roomId)), songId.toString()),
+                () -> putBack(held));
+    }
+
+    @Override
+    public void forget(Long songId) {
+        List<?> held = takePending(List.of(songId));
+        AfterCommit.run(() -> {
+            Long roomId = roomIds.remove(songId);
+            if (roomId == null) {
+                roomId = songRepository.findRoomIdById(songId).orElse(null);
+            }
+            redisTemplate.delete(votersKey(songId));
+            if (roomId != null) {
+                redisTemplate.opsForZSet().remove(rankingKey(roomId), songId.toString());
+            }
+        }, () -> putBack(held));
+    }
+
+    @Override
+    public void resetRoom(Long roomId) {
+        List<?> held = takePending(songsOf(roomId));
+        AfterCommit.run(() -> redisTemplate.execute(RESET_ROOM, List.of(rankingKey(roomId))), () -> putBack(held));
+    }
+
+    @Override
+    public void forgetRoom(Long roomId) {
+        List<?> held = takePending(songsOf(roomId));
+        AfterCommit.run(() -> {
+            roomIds.values().removeIf(roomId::equals);
+            redisTemplate.execute(FORGET_ROOM, List.of(rankingKey(roomId)));
+        }, () -> putBack(held));
+    }
+
+    /**
+     * Votes whose song was reset or forgotten after they were recorded are dropped instead of written.
+     */
+    @Override
+    public int flush(int batchSize, Consumer<List<PendingVote>> writer) {
+        synchronized (flushLock) {
+            List<?> taken = redisTemplate.execute(TAKE, List.of(PENDING_KEY), Integer.toString(batchSize));
+            if (taken == null || taken.isEmpty()) {
+                return 0;
+            }
+
+            List<PendingVote> votes = new ArrayList<>(taken.size());
+            for (Object item : taken) {
+                String[] parts = item.toString().split(":");
+                votes.add(new PendingVote(Long.valueOf(parts[0]), Long.valueOf(parts[1])));
+            }
+            List<Object> voted = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (PendingVote vote : votes) {
+                    connection.setCommands().sIsMember(votersKey(vote.songId()).getBytes(StandardCharsets.UTF_8),
+                            vote.userId().toString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            List<PendingVote> batch = new ArrayList<>(votes.size());
+            for (int i = 0; i < votes.size(); i++) {
+                if (Boolean.TRUE.equals(voted.get(i))) {
+                    batch.add(votes.get(i));
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    writer.accept(batch);
+                } catch (RuntimeException e) {
+                    redisTemplate.opsForList().rightPushAll(PENDING_KEY, batch.stream()
+                            .map(vote -> vote.songId() + ":" + vote.userId())
+                            .toArray());
+                    throw e;
+                }
+            }
+            return taken.size();
+        }
+    }
+
+    /**
+     * Takes the pending votes of the songs out of the list, after waiting for a running flush on this node,
+     * so that none of them is written while the caller deletes the stored votes. They are put back if its
+     * transaction rolls back.
+     */
+    private List<?> takePending(Collection<Long> songIds) {
+        if (songIds.isEmpty()) {
+            return List.of();
+        }
+        synchronized (flushLock) {
+            List<?> taken = redisTemplate.execute(TAKE_SONGS, List.of(PENDING_KEY),
+                    songIds.stream().map(Object::toString).toArray());
+            return taken != null ? taken : List.of();
+        }
+    }
+
+    private void putBack(List<?> votes) {
+        if (!votes.isEmpty()) {
+            redisTemplate.opsForList().rightPushAll(PENDING_KEY, votes.toArray());
+        }
+    }
+
+    private Set<Long> songsOf(Long roomId) {
+        Set<Object> ranked = redisTemplate.opsForZSet().range(rankingKey(roomId), 0, -1);
+        Set<Long> songIds = new HashSet<>();
+        if (ranked != null) {
+            ranked.forEach(songId -> songIds.add(Long.valueOf(songId.toString())));
+        }
+        return songIds;
+    }
+
+    /**
+     * Copies the stored votes of a song into Redis unless another node already did.
+     */
+    private void seed(Long songId, Long roomId) {
+        if (redisTemplate.opsForZSet().score(rankingKey(roomId), songId.toString()) != null) {
+            return;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(songId.toString());
+        args.add(Long.toString(RANK_STEP));
+        for (Long userId : voteRepository.findUserIdsBySongId(songId)) {
+            args.add(userId.toString());
+        }
+        redisTemplate.execute(SEED, List.of(votersKey(songId), rankingKey(roomId)), args.toArray());
+    }
+
+    private static int toCount(double score) {
+        return (int) Math.floor(score / RANK_STEP) + 1;
+    }
+
+    private static String votersKey(Long songId) {
+        return "votes:song:" + songId + ":voters";
+    }
+
+    private static String rankingKey(Long roomId) {
+        return "votes:room:" + roomId + ":ranking";
+    }
+}
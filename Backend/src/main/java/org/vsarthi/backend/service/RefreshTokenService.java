@@ -0,0 +1,86 @@
+package org.vsarthi.backend.service;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.vsarthi.backend.service.RefreshTokenStore.StoredRefreshToken;
+
+/**
+ * Issues opaque refresh tokens and rotates them on use. Presenting a token that was already rotated
+ * revokes its whole family and the user's access tokens, unless it happens within the grace period,
+ * which covers several tabs refreshing with the same cookie at once.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenVersions tokenVersions;
+    private final long expirationMillis;
+    private final long reuseGraceMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore, TokenVersions tokenVersions,
+                               @Value("${jwt.refresh-token.expiration}") long expirationMillis,
+                               @Value("${hive.auth.refresh-token.reuse-grace-ms:10000}") long reuseGraceMillis) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.tokenVersions = tokenVersions;
+        this.expirationMillis = expirationMillis;
+        this.reuseGraceMillis = reuseGraceMillis;
+    }
+
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    // Returns the id of the token's user
+    public Long validate(String refreshToken) {
+        long now = System.currentTimeMillis();
+        StoredRefreshToken token = refreshTokenStore.find(TokenDigest.sha256Hex(refreshToken))
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        if (token.expiresAt() <= now || (token.isUsed() && now - token.usedAt() > reuseGraceMillis)) {
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        return token.userId();
+    }
+
+    public Rotation rotate(String refreshToken) {
+        long now = System.currentTimeMillis();
+        StoredRefreshToken token = refreshTokenStore.markUsed(TokenDigest.sha256Hex(refreshToken), now)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        if (token.expiresAt() <= now) {
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        if (token.isUsed()) {
+            if (now - token.usedAt() > reuseGraceMillis) {
+                logger.warn("Refresh token reused for user {}, revoking its token family", token.userId());
+                refreshTokenStore.deleteFamily(token.family());
+                tokenVersions.revoke(token.userId());
+            }
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        return new Rotation(token.userId(), issue(token.userId(), token.family()));
+    }
+
+    public void revoke(String refreshToken) {
+        refreshTokenStore.find(TokenDigest.sha256Hex(refreshToken))
+                .ifPresent(token -> refreshTokenStore.deleteFamily(token.family()));
+    }
+
+    private String issue(Long userId, String family) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenStore.save(TokenDigest.sha256Hex(refreshToken),
+                new StoredRefreshToken(userId, family, System.currentTimeMillis() + expirationMillis, 0));
+        return refreshToken;
+    }
+
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
@@ -0,0 +1,29 @@
+package org.vsarthi.backend.service;
+
+import java.util.Optional;
+
+/**
+ * Refresh tokens by the SHA-256 digest of the token. Tokens issued by rotating another one share its
+ * family, so that a replayed token can revoke every token derived from the same login.
+ */
+public interface RefreshTokenStore {
+
+    void save(String tokenHash, StoredRefreshToken token);
+
+    Optional<StoredRefreshToken> find(String tokenHash);
+
+    /**
+     * Marks the token used unless it already is, and returns it as it was before, so exactly one
+     * caller sees it unused.
+     */
+    Optional<StoredRefreshToken> markUsed(String tokenHash, long usedAt);
+
+    void deleteFamily(String family);
+
+    record StoredRefreshToken(Long userId, String family, long expiresAt, long usedAt) {
+
+        public boolean isUsed() {
+            return usedAt > 0;
+        }
+    }
+}
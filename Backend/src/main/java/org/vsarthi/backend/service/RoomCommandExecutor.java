@@ -0,0 +1,133 @@
+package org.vsarthi.backend.service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs room commands one at a time per room. In actor mode every room gets a mailbox that is drained
+ * by a virtual thread, so commands for one room are processed in submission order while different rooms
+ * progress independently, and {@link RoomLocks} hands its work to the mailbox instead of locking.
+ * Otherwise commands run directly on the calling thread.
+ */
+@Component
+public class RoomCommandExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    // Room whose mailbox the current thread is draining
+    private static final ThreadLocal<Long> drainingRoom = new ThreadLocal<>();
+
+    @Value("${hive.rooms.actor-mode.enabled:false}")
+    private boolean actorMode;
+
+    public boolean isActorMode() {
+        return actorMode;
+    }
+
+    /**
+     * Runs the command in the room's mailbox and waits for it. A command already running in that mailbox
+     * runs it inline.
+     */
+    public <T> T call(Long roomId, Supplier<T> command) {
+        if (roomId.equals(drainingRoom.get())) {
+            return command.get();
+        }
+        try {
+            return submit(roomId, command::get).join();
+        } catch (CompletionException e) {
+            // Callers handle the command's own exceptions, such as constraint violations
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Long roomId, Callable<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                result.complete(command.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        if (!actorMode) {
+            task.run();
+            return result;
+        }
+
+        boolean[] schedule = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(roomId, (id, existing) -> {
+            Mailbox box = existing != null ? existing : new Mailbox();
+            box.tasks.add(task);
+            if (!box.running) {
+                box.running = true;
+                schedule[0] = true;
+            }
+            return box;
+        });
+        if (schedule[0]) {
+            executor.execute(() -> drain(roomId, mailbox));
+        }
+        return result;
+    }
+
+    private void drain(Long roomId, Mailbox mailbox) {
+        drainingRoom.set(roomId);
+        try {
+            drainTasks(roomId, mailbox);
+        } finally {
+            drainingRoom.remove();
+        }
+    }
+
+    private void drainTasks(Long roomId, Mailbox mailbox) {
+        while (true) {
+            Runnable task = mailbox.tasks.poll();
+            if (task != null) {
+                task.run();
+                continue;
+            }
+
+            // Retire the mailbox only if nothing was enqueued meanwhile, atomically with submit
+            Mailbox remaining = mailboxes.computeIfPresent(roomId, (id, box) -> {
+                if (box.tasks.isEmpty()) {
+                    box.running = false;
+                    return null;
+                }
+                return box;
+            });
+            if (remaining == null) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class Mailbox {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private boolean running;
+    }
+}
@@ -0,0 +1,50 @@
+package org.vsarthi.backend.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Striped per-room locks. Operations on the same room run one at a time while unrelated rooms
+ * only contend when they happen to share a stripe. In actor mode the room's mailbox already runs one
+ * command at a time, so the work goes there and no stripe is locked.
+ */
+@Component
+public class RoomLocks {
+
+    private final ReentrantLock[] stripes;
+    private final RoomCommandExecutor roomCommands;
+
+    public RoomLocks(@Value("${hive.rooms.lock-stripes:256}") int stripeCount, RoomCommandExecutor roomCommands) {
+        this.roomCommands = roomCommands;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the action holding the room's lock. Callers take it before opening a transaction and commit
+     * before it is released, so waiting for a busy room never holds a database connection and the next
+     * holder sees the committed state.
+     */
+    public <T> T withLock(Long roomId, Supplier<T> action) {
+        if (roomCommands.isActorMode()) {
+            return roomCommands.call(roomId, action);
+        }
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(Long roomId) {
+        int hash = roomId.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+}
@@ -0,0 +1,56 @@
+package org.vsarthi.backend.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.repository.RoomRepository;
+
+/**
+ * Ids of the users that joined a room, loaded once per room so that membership checks on hot paths
+ * do not have to load the room. Users only ever join a room until it is closed, so a user missing from
+ * the set is looked up in the database before being turned away; that covers joins on other nodes.
+ * Leaving a room ends the user's sessions but keeps the membership, so there is nothing to drop then.
+ */
+@Component
+public class RoomMembers {
+
+    private final RoomRepository roomRepository;
+    private final Map<Long, Set<Long>> members = new ConcurrentHashMap<>();
+
+    public RoomMembers(RoomRepository roomRepository) {
+        this.roomRepository = roomRepository;
+    }
+
+    public boolean isMember(Long roomId, Long userId) {
+        Set<Long> userIds = load(roomId);
+        if (userIds.contains(userId)) {
+            return true;
+        }
+        if (roomRepository.countJoinedUser(roomId, userId) > 0) {
+            userIds.add(userId);
+            return true;
+        }
+        return false;
+    }
+
+    // Added once the join is committed, a rolled back join must not let the user vote
+    public void add(Long roomId, Long userId) {
+        AfterCommit.run(() -> load(roomId).add(userId), () -> { });
+    }
+
+    // Dropped again after commit, since a check in between reloads the memberships that are being deleted
+    public void evict(Long roomId) {
+        members.remove(roomId);
+        AfterCommit.run(() -> members.remove(roomId), () -> { });
+    }
+
+    private Set<Long> load(Long roomId) {
+        return members.computeIfAbsent(roomId, id -> {
+            Set<Long> userIds = ConcurrentHashMap.newKeySet();
+            userIds.addAll(roomRepository.findJoinedUserIds(id));
+            return userIds;
+        });
+    }
+}
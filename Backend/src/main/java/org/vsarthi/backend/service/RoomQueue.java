@@ -0,0 +1,259 @@
+package org.vsarthi.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import org.vsarthi.backend.model.Song;
+
+/**
+ * Resident queue of a single room, ordered by upvotes (desc) and then by the order in which songs
+ * entered the queue. The currently playing song is kept apart from the queue.
+ */
+public class RoomQueue {
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt((Entry e) -> e.upvotes).reversed()
+            .thenComparingLong(e -> e.seq);
+
+    private final Long roomId;
+    private final NavigableSet<Entry> queued = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Integer> dirtyPositions = new HashMap<>();
+    private Song current;
+
+    // Sequence numbers used as tie-breaker, decreasing at the front and increasing at the back
+    private long headSeq = 0;
+    private long tailSeq = 0;
+
+    public RoomQueue(Long roomId, List<Song> songs) {
+        this.roomId = roomId;
+        for (Song song : songs) {
+            upsert(song);
+        }
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public synchronized List<Song> snapshot() {
+        return top(Integer.MAX_VALUE);
+    }
+
+    /**
+     * The current song and the first queued songs in play order. Returns copies taken under the queue's
+     * monitor, since the queued songs keep changing while the result is serialized.
+     */
+    public synchronized List<Song> top(int limit) {
+        List<Song> result = new ArrayList<>(Math.min(limit, entries.size() + 1));
+        if (current != null && limit > 0) {
+            current.setQueuePosition(null);
+            result.add(copy(current));
+        }
+
+        int position = 1;
+        Iterator<Entry> it = queued.iterator();
+        while (it.hasNext() && result.size() < limit) {
+            Entry entry = it.next();
+            entry.song.setQueuePosition(position);
+            if (entry.persistedPosition == null || entry.persistedPosition != position) {
+                dirtyPositions.put(entry.song.getId(), position);
+            } else {
+                dirtyPositions.remove(entry.song.getId());
+            }
+            result.add(copy(entry.song));
+            position++;
+        }
+        return result;
+    }
+
+    /**
+     * Hands out the ranks that differ from what is stored and assumes they are written by the caller.
+     */
+    public synchronized Map<Long, Integer> drainDirtyPositions() {
+        if (dirtyPositions.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Integer> drained = new HashMap<>(dirtyPositions);
+        dirtyPositions.clear();
+        drained.forEach((songId, position) -> {
+            Entry entry = entries.get(songId);
+            if (entry != null) {
+                entry.persistedPosition = position;
+            }
+        });
+        return drained;
+    }
+
+    /**
+     * Gives back ranks that could not be written, unless a newer rank has been computed meanwhile.
+     */
+    public synchronized void restoreDirtyPositions(Map<Long, Integer> positions) {
+        positions.forEach((songId, position) -> {
+            Entry entry = entries.get(songId);
+            if (entry != null && entry.persistedPosition != null && entry.persistedPosition.equals(position)) {
+                entry.persistedPosition = null;
+                dirtyPositions.putIfAbsent(songId, position);
+            }
+        });
+    }
+
+    public synchronized Optional<Song> getCurrent() {
+        return Optional.ofNullable(current);
+    }
+
+    public synchronized Optional<Song> find(Long songId) {
+        if (current != null && current.getId().equals(songId)) {
+            return Optional.of(current);
+        }
+        Entry entry = entries.get(songId);
+        return entry != null ? Optional.of(entry.song) : Optional.empty();
+    }
+
+    /**
+     * A copy of the song, for callers that hand it out of the room's lock, as {@link #top} does.
+     */
+    public synchronized Optional<Song> findCopy(Long songId) {
+        return find(songId).map(RoomQueue::copy);
+    }
+
+    /**
+     * A copy of the song that plays next. Callers change the copy and hand it back through
+     * {@link #setCurrent}, so a failed change leaves the queue as it was.
+     */
+    public synchronized Optional<Song> peekNext() {
+        return queued.isEmpty() ? Optional.empty() : Optional.of(copy(queued.first().song));
+    }
+
+    public synchronized boolean contains(Long songId) {
+        return entries.containsKey(songId) || (current != null && current.getId().equals(songId));
+    }
+
+    public synchronized int size() {
+        return queued.size();
+    }
+
+    /**
+     * Inserts or refreshes a song. Queued songs keep their place among equally voted songs,
+     * new songs join the back of the queue.
+     */
+    public synchronized void upsert(Song song) {
+        if (song.isCurrent()) {
+            setCurrent(song);
+            return;
+        }
+        if (current != null && current.getId().equals(song.getId())) {
+            current = null;
+        }
+
+        Entry entry = entries.get(song.getId());
+        if (entry == null) {
+            insert(song, ++tailSeq);
+        } else {
+            queued.remove(entry);
+            entry.song = song;
+            entry.upvotes = song.getUpvotes();
+            entry.persistedPosition = song.getQueuePosition();
+            queued.add(entry);
+        }
+    }
+
+    /**
+     * Puts a song back into the queue at the front or at the back of its vote bucket.
+     */
+    public synchronized void requeue(Song song, boolean front) {
+        remove(song.getId());
+        insert(song, front ? --headSeq : ++tailSeq);
+    }
+
+    public synchronized void setCurrent(Song song) {
+        Entry entry = entries.remove(song.getId());
+        if (entry != null) {
+            queued.remove(entry);
+        }
+        dirtyPositions.remove(song.getId());
+        current = song;
+    }
+
+    public synchronized void updateVotes(Long songId, int upvotes) {
+        if (current != null && current.getId().equals(songId)) {
+            current.setUpvotes(upvotes);
+            return;
+        }
+
+        Entry entry = entries.get(songId);
+        if (entry == null) {
+            return;
+        }
+        queued.remove(entry);
+        entry.upvotes = upvotes;
+        entry.song.setUpvotes(upvotes);
+        queued.add(entry);
+    }
+
+    public synchronized void resetVotes() {
+        if (current != null) {
+            current.setUpvotes(0);
+        }
+        List<Entry> all = new ArrayList<>(queued);
+        queued.clear();
+        for (Entry entry : all) {
+            entry.upvotes = 0;
+            entry.song.setUpvotes(0);
+            queued.add(entry);
+        }
+    }
+
+    public synchronized void remove(Long songId) {
+        Entry entry = entries.remove(songId);
+        if (entry != null) {
+            queued.remove(entry);
+        }
+        dirtyPositions.remove(songId);
+        if (current != null && current.getId().equals(songId)) {
+            current = null;
+        }
+    }
+
+    private static Song copy(Song song) {
+        Song copy = new Song();
+        copy.setId(song.getId());
+        copy.setYoutubeLink(song.getYoutubeLink());
+        copy.setVideoId(song.getVideoId());
+        copy.setTitle(song.getTitle());
+        copy.setUpvotes(song.getUpvotes());
+        copy.setCurrent(song.isCurrent());
+        copy.setQueuePosition(song.getQueuePosition());
+        copy.setRoom(song.getRoom());
+        copy.setVersion(song.getVersion());
+        copy.setAddedBy(song.getAddedBy());
+        return copy;
+    }
+
+    private void insert(Song song, long seq) {
+        Entry entry = new Entry(song, seq);
+        entries.put(song.getId(), entry);
+        queued.add(entry);
+    }
+
+    private static final class Entry {
+        private Song song;
+        private int upvotes;
+        private Integer persistedPosition;
+        private final long seq;
+
+        private Entry(Song song, long seq) {
+            this.song = song;
+            this.upvotes = song.getUpvotes();
+            this.persistedPosition = song.getQueuePosition();
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.vsarthi.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.repository.SongRepository;
+
+/**
+ * Keeps one {@link RoomQueue} per room in memory. A queue is loaded from the database the first time
+ * it is needed and afterwards kept up to date by the services that change songs.
+ */
+@Service
+public class RoomQueueManager {
+
+    private final SongRepository songRepository;
+    private final VoteLedger voteLedger;
+    private final Map<Long, RoomQueue> queues = new ConcurrentHashMap<>();
+
+    public RoomQueueManager(SongRepository songRepository, VoteLedger voteLedger) {
+        this.songRepository = songRepository;
+        this.voteLedger = voteLedger;
+    }
+
+    public RoomQueue get(Long roomId) {
+        return queues.computeIfAbsent(roomId, id -> new RoomQueue(id, load(id)));
+    }
+
+    // The vote ledger may be ahead of the stored upvotes, its counts decide the order
+    private List<Song> load(Long roomId) {
+        List<Song> songs = new ArrayList<>(songRepository.findByRoomIdOrderByUpvotesDesc(roomId));
+        Map<Long, Integer> counts = voteLedger.getRoomCounts(roomId);
+        if (!counts.isEmpty()) {
+            songs.forEach(song -> {
+                Integer count = counts.get(song.getId());
+                if (count != null) {
+                    song.setVotes(count);
+                }
+            });
+            songs.sort(Comparator.comparingInt(Song::getUpvotes).reversed());
+        }
+        return songs;
+    }
+
+    public Optional<RoomQueue> find(Long roomId) {
+        return Optional.ofNullable(queues.get(roomId));
+    }
+
+    public List<Song> snapshot(Long roomId) {
+        return get(roomId).snapshot();
+    }
+
+    /**
+     * Applies a change to the room's queue right away. If the surrounding transaction rolls back,
+     * the queue is dropped so that it gets reloaded from the database on next access.
+     */
+    public void mutate(Long roomId, Consumer<RoomQueue> change) {
+        change.accept(get(roomId));
+        evictOnRollback(roomId);
+    }
+
+    /**
+     * Like {@link #mutate}, but a queue that is not loaded is left alone since it will be read from the
+     * database when it is needed.
+     */
+    public void mutateIfLoaded(Long roomId, Consumer<RoomQueue> change) {
+        RoomQueue queue = queues.get(roomId);
+        if (queue != null) {
+            change.accept(queue);
+            evictOnRollback(roomId);
+        }
+    }
+
+    private void evictOnRollback(Long roomId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evict(roomId);
+                    }
+                }
+            });
+        }
+    }
+
+    public void evict(Long roomId) {
+        queues.remove(roomId);
+    }
+
+    public Collection<RoomQueue> getLoadedQueues() {
+        return queues.values();
+    }
+}
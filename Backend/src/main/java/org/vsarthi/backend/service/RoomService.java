@@ -1,17 +1,27 @@
 package org.vsarthi.backend.service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vsarthi.backend.DTO.BulkImportResult;
+import org.vsarthi.backend.DTO.BulkSongRequest;
+import org.vsarthi.backend.DTO.QueueSnapshot;
 import org.vsarthi.backend.DTO.SongEndedResponse;
+import org.vsarthi.backend.DTO.VideoMetadata;
 import org.vsarthi.backend.model.Room;
 import org.vsarthi.backend.model.Song;
 import org.vsarthi.backend.model.Users;
@@ -34,9 +44,16 @@ public class RoomService {
     private final Map<Long, Set<String>> activeSessionsInRoom = new ConcurrentHashMap<>();
     private final SimpMessageSendingOperations messagingTemplate;
     private final VotingService votingService;
+    private final RoomQueueManager roomQueueManager;
+    private final QueuePositionWriter queuePositionWriter;
+    private final RoomLocks roomLocks;
+    private final QueueBroadcaster queueBroadcaster;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final RoomMembers roomMembers;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public RoomService(RoomRepository roomRepository, SongRepository songRepository, VoteRepository voteRepository, UserRepository userRepository, YouTubeService youTubeService, SimpMessageSendingOperations messagingTemplate, VotingService votingService) {
+    public RoomService(RoomRepository roomRepository, SongRepository songRepository, VoteRepository voteRepository, UserRepository userRepository, YouTubeService youTubeService, SimpMessageSendingOperations messagingTemplate, VotingService votingService, RoomQueueManager roomQueueManager, QueuePositionWriter queuePositionWriter, RoomLocks roomLocks, QueueBroadcaster queueBroadcaster, BroadcastCoalescer broadcastCoalescer, RoomMembers roomMembers, TransactionTemplate transactionTemplate) {
         this.roomRepository = roomRepository;
         this.songRepository = songRepository;
         this.voteRepository = voteRepository;
@@ -44,6 +61,13 @@ public class RoomService {
         this.youTubeService = youTubeService;
         this.messagingTemplate = messagingTemplate;
         this.votingService = votingService;
+        this.roomQueueManager = roomQueueManager;
+        this.queuePositionWriter = queuePositionWriter;
+        this.roomLocks = roomLocks;
+        this.queueBroadcaster = queueBroadcaster;
+        this.broadcastCoalescer = broadcastCoalescer;
+        this.roomMembers = roomMembers;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Transactional
@@ -54,94 +78,180 @@ public class RoomService {
     }
 
 
-    @Transactional
+    /**
+     * Looks the video up before the write transaction starts, so a slow YouTube call never holds a
+     * database connection or the room lock.
+     */
     public Song addSongToRoom(Long roomId, String youtubeLink, Users addedBy) throws Exception {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        // Check if the user has joined the room
-        boolean userJoined = room.getJoinedUsers().stream()
-                .anyMatch(joinedUser -> joinedUser.getId().equals(addedBy.getId()));
-
-        if (!userJoined) {
-            throw new RuntimeException("User has not joined the room and cannot add songs");
-        }
-
         String videoId = youTubeService.extractVideoId(youtubeLink);
 
         // Check if the video is available and embeddable
-        if (!youTubeService.isVideoAvailable(videoId)) {
-            throw new RuntimeException("The video is not available or not embeddable");
+        VideoMetadata video = youTubeService.getVideoMetadata(videoId);
+        if (!video.found()) {
+            throw new RuntimeException("Video not found");
         }
-
-        // Check if a song with the same YouTube link already exists in this room
-        Optional<Song> existingSong = songRepository.findByYoutubeLinkAndRoomId(youtubeLink, roomId);
-        if (existingSong.isPresent()) {
-            throw new RuntimeException("Song with the same YouTube link already exists in this room");
+        if (!video.available()) {
+            throw new RuntimeException("The video is not available or not embeddable");
         }
 
-        String title = youTubeService.getVideoTitle(videoId);
-
-        Song song = new Song();
-        song.setYoutubeLink(youtubeLink);
-        song.setTitle(title);
-        song.setRoom(room);
-        song.setAddedBy(addedBy);
-        song.setCurrent(false);
-        
-        Song savedSong = songRepository.save(song);
+        try {
+            return inRoomTransaction(roomId, () -> {
+                Room room = joinedRoom(roomId, addedBy);
+
+                Song song = new Song();
+                song.setYoutubeLink(youtubeLink);
+                song.setVideoId(videoId);
+                song.setTitle(video.title());
+                song.setRoom(room);
+                song.setAddedBy(addedBy);
+                song.setCurrent(false);
 
-    return savedSong;
+                // The (room_id, video_id) constraint turns away a video that is already in the room
+                Song savedSong = songRepository.save(song);
+                roomQueueManager.mutate(roomId, queue -> queue.upsert(savedSong));
+                return savedSong;
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateVideo(e)) {
+                throw new RuntimeException("Song with the same YouTube link already exists in this room");
+            }
+            throw e;
+        }
+    }
 
+    private static boolean isDuplicateVideo(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains(Song.ROOM_VIDEO_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    public List<Song> getSongsInRoom(Long roomId) {
-        List<Song> allSongs = songRepository.findByRoomIdOrderByUpvotesDesc(roomId);
-        List<Song> queuedSongs = new ArrayList<>();
-        Song currentSong = null;
+    /**
+     * Adds every valid link in one short transaction: metadata is looked up in batches before it starts
+     * and the songs are inserted in JDBC batches. Invalid, unavailable and duplicate links are
+     * reported, not added.
+     */
+    public BulkImportResult<Song> addSongsToRoom(Long roomId, List<String> youtubeLinks, Users addedBy) throws Exception {
+        if (youtubeLinks == null || youtubeLinks.isEmpty()) {
+            throw new IllegalArgumentException("No songs to add");
+        }
+        if (youtubeLinks.size() > BulkSongRequest.MAX_LINKS) {
+            throw new IllegalArgumentException("At most " + BulkSongRequest.MAX_LINKS + " songs can be added at once");
+        }
 
-        // Separate current song from queue
-        for (Song song : allSongs) {
-            if (song.isCurrent()) {
-                currentSong = song;
+        Map<String, String> rejected = new LinkedHashMap<>();
+        Map<String, String> videoIds = new LinkedHashMap<>();
+        Set<String> requestedVideos = new HashSet<>();
+        for (String youtubeLink : youtubeLinks) {
+            String videoId;
+            try {
+                videoId = youTubeService.extractVideoId(youtubeLink);
+            } catch (RuntimeException e) {
+                rejected.put(youtubeLink, e.getMessage());
+                continue;
+            }
+            // Different links to the same video count as duplicates
+            if (!requestedVideos.add(videoId)) {
+                rejected.put(youtubeLink, "Song with the same YouTube link already exists in this room");
+                continue;
+            }
+            videoIds.put(youtubeLink, videoId);
+        }
+
+        Map<String, VideoMetadata> videos = youTubeService.getVideoMetadata(videoIds.values());
+        Map<String, VideoMetadata> playable = new LinkedHashMap<>();
+        for (Map.Entry<String, String> link : videoIds.entrySet()) {
+            VideoMetadata video = videos.get(link.getValue());
+            if (video == null || !video.found()) {
+                rejected.put(link.getKey(), "Video not found");
+            } else if (!video.available()) {
+                rejected.put(link.getKey(), "The video is not available or not embeddable");
             } else {
-                queuedSongs.add(song);
+                playable.put(link.getKey(), video);
             }
         }
 
-        // Sort queued songs by votes and queue
-        queuedSongs.sort((a, b) -> {
-            // First compare by votes
-            int voteComparison = Integer.compare(b.getUpvotes(), a.getUpvotes());
-
-            // If votes are equal, compare by queue position
-            if (voteComparison == 0) {
-                // Handle null queue positions (shouldn't happen, but just in case)
-                int posA = a.getQueuePosition() != null ? a.getQueuePosition() : Integer.MAX_VALUE;
-                int posB = b.getQueuePosition() != null ? b.getQueuePosition() : Integer.MAX_VALUE;
-                return Integer.compare(posA, posB);
+        return inRoomTransaction(roomId, () -> {
+            Room room = joinedRoom(roomId, addedBy);
+
+            Set<String> existingVideos = playable.isEmpty() ? Set.of() : new HashSet<>(songRepository.findVideoIdsByRoomIdAndVideoIdIn(
+                    roomId, playable.values().stream().map(VideoMetadata::videoId).toList()));
+            List<Song> songs = new ArrayList<>();
+            for (Map.Entry<String, VideoMetadata> link : playable.entrySet()) {
+                if (existingVideos.contains(link.getValue().videoId())) {
+                    rejected.put(link.getKey(), "Song with the same YouTube link already exists in this room");
+                    continue;
+                }
+                Song song = new Song();
+                song.setYoutubeLink(link.getKey());
+                song.setVideoId(link.getValue().videoId());
+                song.setTitle(link.getValue().title());
+                song.setRoom(room);
+                song.setAddedBy(addedBy);
+                song.setCurrent(false);
+                songs.add(song);
+            }
+            if (songs.isEmpty()) {
+                return new BulkImportResult<>(List.of(), rejected);
             }
 
-            return voteComparison;
+            // Sequence ids let Hibernate send the inserts as JDBC batches
+            List<Song> added = songRepository.saveAll(songs);
+            roomQueueManager.mutate(roomId, queue -> added.forEach(queue::upsert));
+            return new BulkImportResult<>(added, rejected);
+        });
+    }
+
+    // The room lock is taken before the transaction starts, so waiting for it never holds a pooled connection
+    private <T> T inRoomTransaction(Long roomId, Supplier<T> action) {
+        return roomLocks.withLock(roomId, () -> transactionTemplate.execute(status -> action.get()));
+    }
+
+    private void inRoomTransaction(Long roomId, Runnable action) {
+        roomLocks.withLock(roomId, () -> {
+            transactionTemplate.executeWithoutResult(status -> action.run());
+            return null;
         });
+    }
+
+    private Room joinedRoom(Long roomId, Users user) {
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
 
-        // Update queue positions
-        for (int i = 0; i < queuedSongs.size(); i++) {
-            queuedSongs.get(i).setQueuePosition(i + 1);
+        // Check if the user has joined the room
+        boolean userJoined = room.getJoinedUsers().stream()
+                .anyMatch(joinedUser -> joinedUser.getId().equals(user.getId()));
+
+        if (!userJoined) {
+            throw new RuntimeException("User has not joined the room and cannot add songs");
         }
+        return room;
+    }
 
-        // Save updated queue positions
-        songRepository.saveAll(queuedSongs);
+    public List<Song> getSongsInRoom(Long roomId) {
+        List<Song> songs = roomQueueManager.snapshot(roomId);
 
-        // Combine current song with queue
-        List<Song> result = new ArrayList<>();
-        if (currentSong != null) {
-            currentSong.setQueuePosition(null); // Current song has no queue position
-            result.add(currentSong);
+        // Changed queue positions are written by the position writer, right away only when write-behind is off
+        if (!queuePositionWriter.isWriteBehind()) {
+            queuePositionWriter.flush(roomQueueManager.get(roomId));
         }
-        result.addAll(queuedSongs);
 
-        return result;
+        return songs;
+    }
+
+    public QueueSnapshot getQueueSnapshot(Long roomId) {
+        return queueBroadcaster.snapshot(roomId);
+    }
+
+    public void publishQueue(Long roomId) {
+        queueBroadcaster.publish(roomId);
+    }
+
+    public List<Song> getTopSongsInRoom(Long roomId, int limit) {
+        return roomQueueManager.get(roomId).top(limit);
     }
 
     @Transactional
@@ -182,75 +292,73 @@ public class RoomService {
                 .orElseThrow(() -> new RuntimeException("Room not found"));
     }
 
-    @Transactional
     public Song updateCurrentSong(Long roomId, Long songId, Users user) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        return inRoomTransaction(roomId, () -> {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
 
-        if (!room.getCreator().getId().equals(user.getId())) {
-            throw new RuntimeException("You are not the creator of the room, Only the creator can update the current song");
-        }
+            if (!room.getCreator().getId().equals(user.getId())) {
+                throw new RuntimeException("You are not the creator of the room, Only the creator can update the current song");
+            }
 
-        // First, unset current song if exists
-        List<Song> currentSongs = songRepository.findAllByRoomIdAndIsCurrent(roomId, true);
+            // First, unset current song if exists
+            List<Song> currentSongs = songRepository.findAllByRoomIdAndIsCurrent(roomId, true);
 
-        for (Song it : currentSongs) {
-            it.setCurrent(false);
-            it.setQueuePosition(0); // Place at start of queue
-            songRepository.save(it);
-        }
+            for (Song it : currentSongs) {
+                it.setCurrent(false);
+                it.setQueuePosition(0); // Place at start of queue
+                votingService.syncVotes(it);
+                Song displaced = songRepository.save(it);
+                roomQueueManager.mutate(roomId, queue -> queue.requeue(displaced, true));
+            }
+            // Only one song per room may be current, so the old one is cleared before the new one is set
+            songRepository.flush();
 
-        // Set new current song
-        Song newCurrentSong = songRepository.findById(songId)
-                .orElseThrow(() -> new RuntimeException("Song not found"));
+            // Set new current song
+            Song newCurrentSong = songRepository.findById(songId)
+                    .orElseThrow(() -> new RuntimeException("Song not found"));
 
-        if (!newCurrentSong.getRoom().getId().equals(roomId)) {
-            throw new RuntimeException("Song does not belong to the room");
-        }
-
-        newCurrentSong.setCurrent(true);
-        newCurrentSong.setQueuePosition(null); // Remove from queue
-        Song saved = songRepository.save(newCurrentSong);
+            if (!newCurrentSong.getRoom().getId().equals(roomId)) {
+                throw new RuntimeException("Song does not belong to the room");
+            }
 
-        // Reorder queue
-        List<Song> queuedSongs = getSongsInRoom(roomId);
+            newCurrentSong.setCurrent(true);
+            newCurrentSong.setQueuePosition(null); // Remove from queue
+            votingService.syncVotes(newCurrentSong);
+            Song saved = songRepository.save(newCurrentSong);
+            roomQueueManager.mutate(roomId, queue -> queue.setCurrent(saved));
 
-        return saved;
+            return saved;
+        });
     }
 
 
 
-    @Transactional
     public void closeRoom(Long roomId, Users user) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        if (!room.getCreator().getId().equals(user.getId())) {
-            throw new RuntimeException("You are not the creator of the room");
-        }
+        inRoomTransaction(roomId, () -> {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
 
-        try {
-            // Clear the joined users set
-            room.getJoinedUsers().clear();
-            roomRepository.save(room);  // Save to update the join table
-
-            // Clean up all votes for songs in this room
-            List<Song> roomSongs = songRepository.findByRoomId(roomId);
-            for (Song song : roomSongs) {
-                voteRepository.deleteBySong(song);
+            if (!room.getCreator().getId().equals(user.getId())) {
+                throw new RuntimeException("You are not the creator of the room");
             }
 
-            // Clean up active sessions
-            activeSessionsInRoom.remove(roomId);
+            try {
+                // Delete votes, songs, memberships and the room with one statement each
+                votingService.forgetRoomVotes(roomId);
+                songRepository.deleteByRoomId(roomId);
+                roomRepository.deleteJoinedUsers(roomId);
+                roomRepository.deleteRoomById(roomId);
 
-            // Finally delete the room (this will cascade to songs due to orphanRemoval=true)
-            roomRepository.delete(room);
-
-            // Flush to ensure immediate deletion
-            roomRepository.flush();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to delete room: " + e.getMessage(), e);
-        }
+                // Clean up active sessions, members and the resident queue
+                activeSessionsInRoom.remove(roomId);
+                roomMembers.evict(roomId);
+                roomQueueManager.evict(roomId);
+                queueBroadcaster.forget(roomId);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to delete room: " + e.getMessage(), e);
+            }
+        });
     }
 
 
@@ -263,6 +371,7 @@ public class RoomService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (room.addUser(dbUser)) {
+            roomMembers.add(room.getId(), dbUser.getId());
             System.out.println("User added to room: " + dbUser.getUsername());
             // Remove the following line:
             // addActiveUser(room.getId(), dbUser.getUsername());
@@ -278,13 +387,16 @@ public class RoomService {
     public void handleUserDisconnection(String sessionId) {
         for (Map.Entry<Long, Set<String>> entry : activeSessionsInRoom.entrySet()) {
             if (entry.getValue().remove(sessionId)) {
-                Long roomId = entry.getKey();
-                Integer activeUsers = entry.getValue().size();
-                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/activeUsers", activeUsers);
+                publishActiveUsers(entry.getKey());
             }
         }
     }
 
+    public void publishActiveUsers(Long roomId) {
+        broadcastCoalescer.submit("activeUsers:" + roomId, () ->
+                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/activeUsers", getActiveUsersCount(roomId)));
+    }
+
     public Integer getActiveUsersCount(Long roomId) {
         Set<String> roomSessions = activeSessionsInRoom.get(roomId);
         return roomSessions != null ? roomSessions.size() : 0;
@@ -307,6 +419,7 @@ public class RoomService {
         } else {
             System.out.println("User already active in room " + roomId + ": " + sessionId);
         }
+        publishActiveUsers(roomId);
         return roomSessions.size();
     }
 
@@ -315,6 +428,7 @@ public class RoomService {
         Set<String> roomSessions = activeSessionsInRoom.get(roomId);
         if (roomSessions != null) {
             roomSessions.remove(sessionId);
+            publishActiveUsers(roomId);
             if (roomSessions.isEmpty()) {
                 activeSessionsInRoom.remove(roomId);
                 return 0;
@@ -324,196 +438,183 @@ public class RoomService {
         return 0;
     }
 
-    @Transactional
-    public synchronized SongEndedResponse handleSongEnded(Long roomId, Long songId) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        Song endedSong = songRepository.findById(songId)
-                .orElseThrow(() -> new RuntimeException("Song not found"));
+    public SongEndedResponse handleSongEnded(Long roomId, Long songId) {
+        return inRoomTransaction(roomId, () -> {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
 
-        if (!endedSong.getRoom().getId().equals(roomId)) {
-            throw new RuntimeException("Song does not belong to the room");
-        }
+            Song endedSong = songRepository.findById(songId)
+                    .orElseThrow(() -> new RuntimeException("Song not found"));
 
-        // Verify this song is actually the current song
-        if (!endedSong.isCurrent()) {
-            throw new RuntimeException("Cannot end a song that is not currently playing");
-        }
+            if (!endedSong.getRoom().getId().equals(roomId)) {
+                throw new RuntimeException("Song does not belong to the room");
+            }
 
-        votingService.removeVotes(songId);
+            // Verify this song is actually the current song
+            if (!endedSong.isCurrent()) {
+                throw new RuntimeException("Cannot end a song that is not currently playing");
+            }
 
-        // Reset ended song
-        endedSong.setCurrent(false);
-        endedSong.setUpvotes(0);
-        endedSong.setQueuePosition(Integer.MAX_VALUE); // Place at end of queue
-        voteRepository.deleteBySong(endedSong);
-        songRepository.save(endedSong);
+            votingService.removeVotes(songId);
 
-        // Ensure only one song is marked as current
-        List<Song> currentSongs = songRepository.findAllByRoomIdAndIsCurrent(roomId, true);
-        if (currentSongs.size() > 1) {
-            // Multiple songs marked as current, so reset them all
-            for (Song song : currentSongs) {
-                song.setCurrent(false);
-                songRepository.save(song);
+            // Reset ended song
+            endedSong.setCurrent(false);
+            endedSong.setUpvotes(0);
+            endedSong.setQueuePosition(Integer.MAX_VALUE); // Place at end of queue
+            Song requeued = songRepository.save(endedSong);
+            roomQueueManager.mutate(roomId, queue -> queue.requeue(requeued, false));
+
+            // Ensure only one song is marked as current
+            List<Song> currentSongs = songRepository.findAllByRoomIdAndIsCurrent(roomId, true);
+            if (currentSongs.size() > 1) {
+                // Multiple songs marked as current, so reset them all
+                for (Song song : currentSongs) {
+                    song.setCurrent(false);
+                    votingService.syncVotes(song);
+                    Song reset = songRepository.save(song);
+                    roomQueueManager.mutate(roomId, queue -> queue.requeue(reset, true));
+                }
             }
-        }
 
-        // Find next song with highest votes
-        List<Song> remainingSongs = songRepository.findByRoomIdAndIsCurrentFalseOrderByUpvotesDesc(roomId);
-        Song nextSong = null;
-        if (!remainingSongs.isEmpty()) {
-            nextSong = remainingSongs.getFirst();
-            nextSong.setCurrent(true);
-            nextSong.setQueuePosition(null);
-            songRepository.save(nextSong);
-        }
+            // Find next song with highest votes; it is a copy, the queue changes only through setCurrent
+            Optional<Song> nextSong = roomQueueManager.get(roomId).peekNext();
+            if (nextSong.isPresent()) {
+                Song next = nextSong.get();
+                next.setCurrent(true);
+                next.setQueuePosition(null);
+                Song saved = songRepository.save(next);
+                roomQueueManager.mutate(roomId, queue -> queue.setCurrent(saved));
+            }
 
-        // Update queue positions for remaining songs
-        List<Song> updatedQueue = getSongsInRoom(roomId);
+            // Update queue positions for remaining songs
+            List<Song> updatedQueue = getSongsInRoom(roomId);
 
-        return new SongEndedResponse(
-                songId,
-                updatedQueue.stream().map(Song::getId).toList()
-        );
+            return new SongEndedResponse(
+                    songId,
+                    updatedQueue.stream().map(Song::getId).toList()
+            );
+        });
     }
 
-    @Transactional
-    public synchronized Song playNow(Long roomId, Long songId, Users user) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+    public Song playNow(Long roomId, Long songId, Users user) {
+        return inRoomTransaction(roomId, () -> {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
 
-        if (!room.getCreator().getId().equals(user.getId())) {
-            throw new RuntimeException("Only the room creator can play songs immediately");
-        }
+            if (!room.getCreator().getId().equals(user.getId())) {
+                throw new RuntimeException("Only the room creator can play songs immediately");
+            }
 
-        Song song = songRepository.findById(songId)
-                .orElseThrow(() -> new RuntimeException("Song not found"));
+            Song song = songRepository.findById(songId)
+                    .orElseThrow(() -> new RuntimeException("Song not found"));
 
-        if (!song.getRoom().getId().equals(roomId)) {
-            throw new RuntimeException("Song does not belong to the room");
-        }
+            if (!song.getRoom().getId().equals(roomId)) {
+                throw new RuntimeException("Song does not belong to the room");
+            }
 
-        if (song.isCurrent()) {
-            throw new RuntimeException("Song is already playing");
-        }
+            if (song.isCurrent()) {
+                throw new RuntimeException("Song is already playing");
+            }
 
-        // Find and unset ALL current songs to ensure no duplicates
-        List<Song> currentSongs = songRepository.findAllByRoomIdAndIsCurrent(roomId, true);
-        for (Song currentSong : currentSongs) {
-            currentSong.setCurrent(false);
-            currentSong.setUpvotes(0);
-            voteRepository.deleteBySong(currentSong);
-            songRepository.save(currentSong);
-        }
+            // Find and unset ALL current songs to ensure no duplicates
+            List<Song> currentSongs = songRepository.findAllByRoomIdAndIsCurrent(roomId, true);
+            for (Song currentSong : currentSongs) {
+                currentSong.setCurrent(false);
+                currentSong.setUpvotes(0);
+                votingService.removeVotes(currentSong.getId());
+                Song displaced = songRepository.save(currentSong);
+                roomQueueManager.mutate(roomId, queue -> queue.upsert(displaced));
+            }
+            // Cleared before the new current song is set, as in updateCurrentSong
+            songRepository.flush();
 
-        votingService.removeVotes(songId);
+            votingService.removeVotes(songId);
 
-        // Set new current song
-        song.setCurrent(true);
-        song.setQueuePosition(null);
-        song.setUpvotes(0);
-        voteRepository.deleteBySong(song);
-        Song savedSong = songRepository.save(song);
+            // Set new current song
+            song.setCurrent(true);
+            song.setQueuePosition(null);
+            song.setUpvotes(0);
+            Song savedSong = songRepository.save(song);
+            roomQueueManager.mutate(roomId, queue -> queue.setCurrent(savedSong));
 
-        // Update queue and notify clients
-        List<Song> updatedSongs = getSongsInRoom(roomId);
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/songs", updatedSongs);
-        return savedSong;
+            // Update queue and notify clients
+            queueBroadcaster.publish(roomId);
+            return savedSong;
+        });
     }
 
-    @Transactional
     public void removeSong(Long roomId, Long songId, Users user) {
-        // Validate room and user permissions
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new IllegalArgumentException("Room not found with ID: " + roomId));
-
-        if (!room.getCreator().getId().equals(user.getId())) {
-            throw new IllegalStateException("User " + user.getUsername() + " is not authorized to remove songs in this room");
-        }
-
-        // Find and validate the song
-        Song song = songRepository.findById(songId)
-                .orElseThrow(() -> new IllegalArgumentException("Song not found with ID: " + songId));
+        inRoomTransaction(roomId, () -> {
+            // Validate room and user permissions
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new IllegalArgumentException("Room not found with ID: " + roomId));
 
-        // Validate song belongs to room
-        if (!song.getRoom().getId().equals(roomId)) {
-            throw new IllegalStateException("Song with ID " + songId + " does not belong to room " + roomId);
-        }
+            if (!room.getCreator().getId().equals(user.getId())) {
+                throw new IllegalStateException("User " + user.getUsername() + " is not authorized to remove songs in this room");
+            }
 
-        // Check if song is currently playing
-        if (song.isCurrent()) {
-            throw new IllegalStateException("Cannot remove currently playing song");
-        }
+            // Find and validate the song
+            Song song = songRepository.findById(songId)
+                    .orElseThrow(() -> new IllegalArgumentException("Song not found with ID: " + songId));
 
-        try {
-            // First remove all votes associated with the song
-            voteRepository.deleteBySong(song);
+            // Validate song belongs to room
+            if (!song.getRoom().getId().equals(roomId)) {
+                throw new IllegalStateException("Song with ID " + songId + " does not belong to room " + roomId);
+            }
 
-            // Remove the song from the room's song set
-            room.getSongs().remove(song);
-            votingService.removeVotes(songId);
-            // Delete the song
-            songRepository.delete(song);
+            // Check if song is currently playing
+            if (song.isCurrent()) {
+                throw new IllegalStateException("Cannot remove currently playing song");
+            }
 
-            // Update queue positions for remaining songs
-            List<Song> remainingSongs = getSongsInRoom(roomId);
-            for (int i = 0; i < remainingSongs.size(); i++) {
-                Song remainingSong = remainingSongs.get(i);
-                if (!remainingSong.isCurrent()) {
-                    remainingSong.setQueuePosition(i);
-                    songRepository.save(remainingSong);
-                }
+            try {
+                // First remove all votes associated with the song
+                votingService.removeVotes(songId);
+
+                // Remove the song from the room's song set
+                room.getSongs().remove(song);
+                // Delete the song
+                songRepository.delete(song);
+                votingService.forgetVotes(songId);
+                roomQueueManager.mutate(roomId, queue -> queue.remove(songId));
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to remove song: " + e.getMessage(), e);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to remove song: " + e.getMessage(), e);
-        }
+        });
     }
 
-    @Transactional
     public Integer leaveRoom(Long roomId, String sessionId, String email) {
-        try {
-            Room room = roomRepository.findById(roomId)
-                    .orElseThrow(() -> new RuntimeException("Room not found"));
-
-            Set<String> roomSessions = activeSessionsInRoom.get(roomId);
-            if(roomSessions != null) {
-                roomSessions.remove(sessionId);
-            }
-
-            // Check if the leaving user is the creator
-            if(room.getCreator().getEmail().equals(email)) {
-                // Reset all votes for songs in the room
-                List<Song> roomSongs = songRepository.findByRoomId(roomId);
-                for(Song song : roomSongs) {
-                    // Clear votes
-                    votingService.removeVotes(song.getId());
-                    // Clear DB votes
-                    voteRepository.deleteBySong(song);
-
-                    // Reset song properties
-                    song.setUpvotes(0);
-                    if(!song.isCurrent()) {
-                        song.setQueuePosition(null);
-                    }
+        return inRoomTransaction(roomId, () -> {
+            try {
+                Room room = roomRepository.findById(roomId)
+                        .orElseThrow(() -> new RuntimeException("Room not found"));
+
+                Set<String> roomSessions = activeSessionsInRoom.get(roomId);
+                if(roomSessions != null) {
+                    roomSessions.remove(sessionId);
                 }
 
-                // Save all changes
-                songRepository.saveAll(roomSongs);
+                // Check if the leaving user is the creator
+                if(room.getCreator().getEmail().equals(email)) {
+                    // Reset all votes for songs in the room, queue positions are kept up to date by the position writer
+                    votingService.removeRoomVotes(roomId);
+                    roomQueueManager.mutateIfLoaded(roomId, RoomQueue::resetVotes);
 
-                // Notify all clients
-                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/status", "CREATOR_LEFT");
-                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/songs", roomSongs);
+                    // Notify all clients
+                    messagingTemplate.convertAndSend("/topic/room/" + roomId + "/status", "CREATOR_LEFT");
+                    queueBroadcaster.publish(roomId);
 
-                // Clear active sessions
-                activeSessionsInRoom.remove(roomId);
-                return 0;
-            }
+                    // Clear active sessions
+                    activeSessionsInRoom.remove(roomId);
+                    publishActiveUsers(roomId);
+                    return 0;
+                }
 
-            return roomSessions != null ? roomSessions.size() : 0;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to leave room: " + e.getMessage());
-        }
+                publishActiveUsers(roomId);
+                return roomSessions != null ? roomSessions.size() : 0;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to leave room: " + e.getMessage());
+            }
+        });
     }
 }
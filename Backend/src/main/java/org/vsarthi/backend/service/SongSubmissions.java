@@ -0,0 +1,69 @@
+package org.vsarthi.backend.service;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.DTO.SongSubmission;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.Users;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Adds songs in the background, so that request threads are not parked on YouTube lookups. A submission
+ * is checked locally and returns a pending id right away; the song is added on a virtual thread, which
+ * waits for YouTube before it takes the room. An added song reaches the queue through the room's usual
+ * queue broadcast, and its submission is announced on {@code /topic/room/{roomId}/submissions}; a rejected
+ * one is sent to the submitter's {@code /user/queue/submissions}.
+ */
+@Component
+public class SongSubmissions {
+    private static final Logger logger = LoggerFactory.getLogger(SongSubmissions.class);
+
+    private final RoomService roomService;
+    private final YouTubeService youTubeService;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SongSubmissions(RoomService roomService, YouTubeService youTubeService, SimpMessageSendingOperations messagingTemplate) {
+        this.roomService = roomService;
+        this.youTubeService = youTubeService;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Throws IllegalArgumentException if the link is not a YouTube link. The principal name is the
+     * {@code Principal#getName} of the submitter's STOMP sessions, which is unique per user.
+     */
+    public SongSubmission submit(Long roomId, String youtubeLink, Users user, String principalName) {
+        if (youtubeLink == null || youtubeLink.isBlank()) {
+            throw new IllegalArgumentException("Invalid YouTube link");
+        }
+        // Turns away links that aren't YouTube links before anything runs in the background
+        youTubeService.extractVideoId(youtubeLink);
+        String pendingId = UUID.randomUUID().toString();
+        executor.execute(() -> process(roomId, youtubeLink, user, principalName, pendingId));
+        return SongSubmission.pending(pendingId, youtubeLink);
+    }
+
+    private void process(Long roomId, String youtubeLink, Users user, String principalName, String pendingId) {
+        try {
+            Song song = roomService.addSongToRoom(roomId, youtubeLink, user);
+            roomService.publishQueue(roomId);
+            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/submissions", SongSubmission.added(pendingId, song));
+        } catch (Throwable e) {
+            logger.debug("Song submission {} to room {} failed: {}", pendingId, roomId, e.getMessage());
+            messagingTemplate.convertAndSendToUser(principalName, "/queue/submissions", SongSubmission.failed(pendingId, youtubeLink, e.getMessage()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,30 @@
+package org.vsarthi.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Current access token version per user. Access tokens carry the version they were issued with, and
+ * revoking a user's tokens bumps the version so that every token issued before is refused.
+ * Versions are kept in memory only: after a restart all unexpired access tokens are accepted again,
+ * which is bounded by the short access token lifetime.
+ */
+@Component
+public class TokenVersions {
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    public int current(Long userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    public boolean isCurrent(Long userId, int version) {
+        return version >= current(userId);
+    }
+
+    public void revoke(Long userId) {
+        versions.merge(userId, 1, Integer::sum);
+    }
+}
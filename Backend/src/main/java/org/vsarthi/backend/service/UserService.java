@@ -2,15 +2,14 @@ package org.vsarthi.backend.service;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
-import org.antlr.v4.runtime.Token;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.vsarthi.backend.model.UserPrincipal;
 import org.vsarthi.backend.model.Users;
 import org.vsarthi.backend.repository.UserRepository;
 
@@ -21,13 +20,40 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final VerifiedTokenCache verifiedTokens;
+    private final TokenVersions tokenVersions;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService, VerifiedTokenCache verifiedTokens, TokenVersions tokenVersions, RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.verifiedTokens = verifiedTokens;
+        this.tokenVersions = tokenVersions;
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    // Refuses this and every other access token issued to the token's user so far
+    public void revokeAccessTokens(String accessToken) {
+        Long userId;
+        try {
+            userId = verifiedTokens.verify(accessToken).principal().getUser().getId();
+        } catch (RuntimeException e) {
+            // Already expired, revoked or invalid
+            return;
+        }
+        tokenVersions.revoke(userId);
+        verifiedTokens.evict(accessToken);
+    }
+
+    public void revokeRefreshToken(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    private String accessToken(Users user) {
+        return jwtService.generateAccessToken(user, tokenVersions.current(user.getId()));
     }
 
     public static void removeCookies(HttpServletResponse response) {
@@ -52,7 +78,7 @@ public class UserService {
         Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(user.getEmail(), user.getPassword()));
 
         if (authentication.isAuthenticated()) {
-            return jwtService.generateAccessToken(existingUser);
+            return accessToken(existingUser);
         } else {
             throw new IllegalArgumentException("User not authenticated");
         }
@@ -72,12 +98,9 @@ public class UserService {
 
     // New method to generate both access and refresh tokens
     public TokenPair generateTokens(Users user) {
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
-
-        // Store refresh token in the database
-        user.setRefreshToken(refreshToken);
-        userRepository.save(user);
+        String accessToken = accessToken(user);
+        String refreshToken = refreshTokenService.issue(user.getId());
+        verifiedTokens.evictUser(user.getEmail());
 
         return new TokenPair(accessToken, refreshToken);
     }
@@ -103,27 +126,21 @@ public class UserService {
     // generate a refreshed access token
 
     public String refreshedAccessToken(String refreshToken) {
-        String email = jwtService.extractEmail(refreshToken);
-        Users user = userRepository.findByEmail(email);
-
-        if (user == null || !refreshToken.equals(user.getRefreshToken())) {
-            throw new IllegalArgumentException("Invalid refresh token");
-        }
-
-        return jwtService.generateAccessToken(user);
+        return accessToken(tokenUser(refreshTokenService.validate(refreshToken)));
     }
 
 
 
     public TokenPair refreshTokens(String refreshToken) {
-        String email = jwtService.extractEmail(refreshToken);
-        Users user = userRepository.findByEmail(email);
-
-        if (user == null || !refreshToken.equals(user.getRefreshToken())) {
-            throw new IllegalArgumentException("Invalid refresh token");
-        }
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        return new TokenPair(accessToken(tokenUser(rotation.userId())), rotation.refreshToken());
+    }
 
-        return generateTokens(user);
+    // Only the fields that go into an access token
+    private Users tokenUser(Long userId) {
+        return userRepository.findAuthUserById(userId)
+                .map(authUser -> new UserPrincipal(authUser).getUser())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
     }
 
     // Inner class to represent a pair of tokens
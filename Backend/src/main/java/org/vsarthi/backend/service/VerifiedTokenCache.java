@@ -0,0 +1,118 @@
+package org.vsarthi.backend.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.DTO.UserDetailsServiceImpl;
+import org.vsarthi.backend.model.AuthUser;
+import org.vsarthi.backend.model.UserPrincipal;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+
+/**
+ * Remembers access tokens that were already verified, keyed by a SHA-256 digest of the token, together
+ * with their claims and the resolved principal. A hit skips the signature check. The principal is built
+ * from the token's identity claims; only tokens issued without them need a user lookup. Entries expire
+ * with their token, or after the configured TTL so that principal changes are picked up.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenVersions tokenVersions;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+
+    public VerifiedTokenCache(JwtService jwtService, UserDetailsServiceImpl userDetailsService, TokenVersions tokenVersions,
+                              @Value("${hive.auth.token-cache.max-size:10000}") int maxSize,
+                              @Value("${hive.auth.token-cache.ttl-ms:300000}") long ttlMillis) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the principal of a valid token. Throws the parser's exception if the token is expired
+     * or invalid, and UsernameNotFoundException if its user no longer exists. A revoked token is
+     * reported as expired, so that a client holding a refresh token gets a new access token.
+     */
+    public UserPrincipal resolve(String token) {
+        return verify(token).principal();
+    }
+
+    public Entry verify(String token) {
+        String digest = TokenDigest.sha256Hex(token);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(digest);
+        if (entry != null && entry.expiresAt() > now) {
+            checkVersion(entry.claims());
+            return entry;
+        }
+
+        Claims claims = jwtService.parseClaims(token);
+        checkVersion(claims);
+        UserPrincipal principal = principalOf(claims);
+        if (!jwtService.validateToken(claims, principal)) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+
+        entry = new Entry(claims, principal, Math.min(claims.getExpiration().getTime(), now + ttlMillis));
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+        }
+        if (entries.size() < maxSize) {
+            entries.put(digest, entry);
+        }
+        return entry;
+    }
+
+    private UserPrincipal principalOf(Claims claims) {
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+        if (userId == null) {
+            // Issued before access tokens carried the user's identity
+            return (UserPrincipal) userDetailsService.loadUserByEmail(claims.getSubject());
+        }
+        return new UserPrincipal(new AuthUser(userId, claims.getSubject(), claims.get(JwtService.USERNAME_CLAIM, String.class), null));
+    }
+
+    private void checkVersion(Claims claims) {
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+        Integer version = claims.get(JwtService.VERSION_CLAIM, Integer.class);
+        if (userId != null && version != null && !tokenVersions.isCurrent(userId, version)) {
+            throw new ExpiredJwtException(null, claims, "Token revoked");
+        }
+    }
+
+    public void evict(String token) {
+        entries.remove(TokenDigest.sha256Hex(token));
+    }
+
+    // Used when a user's tokens change, e.g. on logout or refresh token rotation
+    public void evictUser(String email) {
+        entries.values().removeIf(entry -> entry.principal().getEmail().equals(email));
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (entries.size() < maxSize) {
+            return;
+        }
+        // Still full, make room by dropping arbitrary entries
+        Iterator<String> keys = entries.keySet().iterator();
+        for (int excess = entries.size() - maxSize + Math.max(1, maxSize / 10); excess > 0 && keys.hasNext(); excess--) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    public record Entry(Claims claims, UserPrincipal principal, long expiresAt) {
+    }
+}
@@ -0,0 +1,125 @@
+package org.vsarthi.backend.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.DTO.VideoMetadata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Video metadata by video id, shared by all rooms and playlists. Playable videos are kept for the
+ * configured TTL, missing and unplayable ones for the shorter negative TTL. When enabled, Redis backs
+ * the bounded in-memory cache so that other nodes and restarts reuse lookups.
+ */
+@Component
+public class VideoMetadataCache {
+    private static final Logger logger = LoggerFactory.getLogger(VideoMetadataCache.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final boolean redisEnabled;
+
+    public VideoMetadataCache(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper,
+                              @Value("${hive.youtube.cache.max-size:10000}") int maxSize,
+                              @Value("${hive.youtube.cache.ttl-ms:21600000}") long ttlMillis,
+                              @Value("${hive.youtube.cache.negative-ttl-ms:600000}") long negativeTtlMillis,
+                              @Value("${hive.youtube.cache.redis.enabled:false}") boolean redisEnabled) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.redisEnabled = redisEnabled;
+    }
+
+    public Optional<VideoMetadata> get(String videoId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(videoId);
+        if (entry != null && entry.expiresAt() > now) {
+            return Optional.of(entry.metadata());
+        }
+        if (!redisEnabled) {
+            return Optional.empty();
+        }
+
+        try {
+            Object cached = redisTemplate.opsForValue().get(key(videoId));
+            if (cached == null) {
+                return Optional.empty();
+            }
+            VideoMetadata metadata = objectMapper.readValue(cached.toString(), VideoMetadata.class);
+            Long ttl = redisTemplate.getExpire(key(videoId));
+            remember(metadata, now + (ttl != null && ttl > 0 ? ttl * 1000 : ttlFor(metadata)));
+            return Optional.of(metadata);
+        } catch (Exception e) {
+            logger.warn("Failed to read video {} from Redis: {}", videoId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Last known metadata of a video on this node, even if it expired; for when YouTube can't be asked
+    public Optional<VideoMetadata> getStale(String videoId) {
+        Entry entry = entries.get(videoId);
+        return entry != null ? Optional.of(entry.metadata()) : Optional.empty();
+    }
+
+    public void put(VideoMetadata metadata) {
+        long ttl = ttlFor(metadata);
+        remember(metadata, System.currentTimeMillis() + ttl);
+        if (!redisEnabled) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForValue().set(key(metadata.videoId()), objectMapper.writeValueAsString(metadata), Duration.ofMillis(ttl));
+        } catch (Exception e) {
+            logger.warn("Failed to write video {} to Redis: {}", metadata.videoId(), e.getMessage());
+        }
+    }
+
+    private long ttlFor(VideoMetadata metadata) {
+        return metadata.found() && metadata.available() ? ttlMillis : negativeTtlMillis;
+    }
+
+    private void remember(VideoMetadata metadata, long expiresAt) {
+        if (entries.size() >= maxSize) {
+            evictExpired(System.currentTimeMillis());
+        }
+        if (entries.size() < maxSize) {
+            entries.put(metadata.videoId(), new Entry(metadata, expiresAt));
+        }
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (entries.size() < maxSize) {
+            return;
+        }
+        // Still full, make room by dropping arbitrary entries
+        Iterator<String> keys = entries.keySet().iterator();
+        for (int excess = entries.size() - maxSize + Math.max(1, maxSize / 10); excess > 0 && keys.hasNext(); excess--) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String key(String videoId) {
+        return "youtube:video:" + videoId;
+    }
+
+    private record Entry(VideoMetadata metadata, long expiresAt) {
+    }
+}
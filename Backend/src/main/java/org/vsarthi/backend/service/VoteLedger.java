@@ -0,0 +1,50 @@
+package org.vsarthi.backend.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Voter sets and upvote counts per song. Votes are acknowledged as soon as they are recorded in the
+ * ledger and written to the votes table later by the {@link VoteWriter}. The backend is selected with
+ * {@code hive.votes.backend}, either {@code memory} (default) or {@code redis}.
+ */
+public interface VoteLedger {
+
+    Long getRoomId(Long songId);
+
+    /**
+     * Records a vote and returns the new count, or -1 if the user already voted for the song.
+     */
+    int record(Long songId, Long userId);
+
+    Optional<Integer> getCount(Long songId);
+
+    /**
+     * Returns the counts the ledger knows for the songs of a room, which may be ahead of the votes table.
+     */
+    Map<Long, Integer> getRoomCounts(Long roomId);
+
+    /**
+     * Forgets all votes of a song, including the ones not written yet. Inside a transaction the votes
+     * not written yet are held back right away and the rest is cleared once it commits; a rollback
+     * leaves the song's votes as they were. The same holds for {@code forget} and the room variants.
+     */
+    void reset(Long songId);
+
+    void forget(Long songId);
+
+    void resetRoom(Long roomId);
+
+    void forgetRoom(Long roomId);
+
+    /**
+     * Hands up to {@code batchSize} pending votes to the writer and returns how many were taken.
+     * Votes are put back if the writer fails.
+     */
+    int flush(int batchSize, Consumer<List<PendingVote>> writer);
+
+    record PendingVote(Long songId, Long userId) {
+    }
+}
@@ -0,0 +1,98 @@
+package org.vsarthi.backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes votes recorded in the {@link VoteLedger} to the votes table in JDBC batches, together with
+ * the resulting upvote counts of the affected songs.
+ */
+@Service
+public class VoteWriter {
+    private static final Logger logger = LoggerFactory.getLogger(VoteWriter.class);
+
+    // Votes for songs deleted in the meantime are skipped, as are votes that are already stored. Plain
+    // EXISTS checks instead of ON CONFLICT, so that the statement also runs on H2
+    private static final String INSERT_VOTE = "INSERT INTO user_votes (id, user_id, song_id, is_upvote) "
+            + "SELECT ?, ?, ?, true WHERE EXISTS (SELECT 1 FROM song WHERE id = ?) "
+            + "AND NOT EXISTS (SELECT 1 FROM user_votes WHERE user_id = ? AND song_id = ?)";
+    // Vote ids are taken from the same sequence and in the same blocks as Hibernate's pooled-lo generator
+    private static final String NEXT_VOTE_ID_BLOCK = "SELECT nextval('user_votes_seq')";
+    private static final int VOTE_ID_BLOCK_SIZE = 50;
+    private static final String UPDATE_UPVOTES = "UPDATE song SET upvotes = ? WHERE id = ?";
+
+    private final VoteLedger voteLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${hive.votes.write-behind.batch-size:500}")
+    private int batchSize;
+
+    public VoteWriter(VoteLedger voteLedger, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.voteLedger = voteLedger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${hive.votes.write-behind.interval-ms:500}")
+    public void flush() {
+        try {
+            while (voteLedger.flush(batchSize, this::write) == batchSize) {
+                // Keep going until the backlog is drained
+            }
+        } catch (Exception e) {
+            logger.error("Error writing votes, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<VoteLedger.PendingVote> votes) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        for (VoteLedger.PendingVote vote : votes) {
+            if (!counts.containsKey(vote.songId())) {
+                voteLedger.getCount(vote.songId()).ifPresent(count -> counts.put(vote.songId(), count));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] ids = voteIds(votes.size());
+            List<Object[]> rows = new ArrayList<>(votes.size());
+            for (int i = 0; i < votes.size(); i++) {
+                VoteLedger.PendingVote vote = votes.get(i);
+                rows.add(new Object[]{ids[i], vote.userId(), vote.songId(), vote.songId(), vote.userId(), vote.songId()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_VOTE, rows);
+            jdbcTemplate.batchUpdate(UPDATE_UPVOTES, List.copyOf(counts.entrySet()), counts.size(), (ps, count) -> {
+                ps.setInt(1, count.getValue());
+                ps.setLong(2, count.getKey());
+            });
+        });
+    }
+
+    private long[] voteIds(int count) {
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += VOTE_ID_BLOCK_SIZE) {
+            long lo = jdbcTemplate.queryForObject(NEXT_VOTE_ID_BLOCK, Long.class);
+            for (int i = from; i < Math.min(from + VOTE_ID_BLOCK_SIZE, count); i++) {
+                ids[i] = lo + (i - from);
+            }
+        }
+        return ids;
+    }
+}
@@ -1,13 +1,8 @@
 package org.vsarthi.backend.service;
 
-import java.util.List;
-
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.vsarthi.backend.model.Room;
 import org.vsarthi.backend.model.Song;
 import org.vsarthi.backend.model.Users;
-import org.vsarthi.backend.model.Vote;
 import org.vsarthi.backend.repository.SongRepository;
 import org.vsarthi.backend.repository.VoteRepository;
 
@@ -19,47 +14,66 @@ public class VotingService {
 
     private final SongRepository songrepository;
     private final VoteRepository voteRepository;
-    private final SimpMessagingTemplate messageTemplate;
+    private final RoomQueueManager roomQueueManager;
+    private final QueueBroadcaster queueBroadcaster;
+    private final VoteLedger voteLedger;
+    private final RoomMembers roomMembers;
+    private final RoomLocks roomLocks;
 
 
     public Song vote(Long songId, Users user) {
 
-        Song song = songrepository.findById(songId).orElseThrow(() -> new IllegalArgumentException("Song not found"));
-
-        Room room = song.getRoom();
+        Long roomId = voteLedger.getRoomId(songId);
 
-        boolean isUserInRoom = room.getJoinedUsers().stream().anyMatch(u -> u.getId().equals(user.getId()));
-
-        if(!isUserInRoom) {
+        if(!roomMembers.isMember(roomId, user.getId())) {
             throw new IllegalArgumentException("User not in room");
         }
 
-        // check if user has already voted
+        // record the vote in the ledger, it is written to the vote table by the VoteWriter
+        Song song = roomLocks.withLock(roomId, () -> {
+            int upvotes = voteLedger.record(songId, user.getId());
+            if(upvotes < 0) {
+                throw new IllegalArgumentException("User has already voted");
+            }
 
-        boolean hasVoted = voteRepository.existsBySongIdAndUserId(song.getId(), user.getId());
+            RoomQueue queue = roomQueueManager.get(roomId);
+            queue.updateVotes(songId, upvotes);
+            // Serialized after the lock is released, while other votes keep changing the queued song
+            return queue.findCopy(songId).orElseThrow(() -> new IllegalArgumentException("Song not found"));
+        });
 
-        if(hasVoted) {
-            throw new IllegalArgumentException("User has already voted");
-        }
+        queueBroadcaster.publish(roomId);
+
+        return song;
+    }
 
-        // create vote
-        Vote vote = new Vote();
-        vote.setSong(song);
-        vote.setUser(user);
-        voteRepository.save(vote);
+    public Long getRoomIdForSong(Long songId) {
+        return voteLedger.getRoomId(songId);
+    }
 
-        // update the song table using the vote table count
-        song.setVotes(voteRepository.countBySongId(song.getId()));
-        songrepository.save(song);
+    // Songs loaded from the database may not include votes that are not written yet
+    public void syncVotes(Song song) {
+        voteLedger.getCount(song.getId()).ifPresent(song::setVotes);
+    }
 
-        List<Song> songs = songrepository.findByRoomId(room.getId());
+    public void removeVotes(Long songId) {
+        voteLedger.reset(songId);
+        voteRepository.deleteBySongId(songId);
+    }
 
-        messageTemplate.convertAndSend("/topic/room/" + room.getId() + "/songs", songs);
+    public void forgetVotes(Long songId) {
+        voteLedger.forget(songId);
+    }
 
-        return song;
+    // Clears the votes of every song in the room with one DELETE and one UPDATE
+    public void removeRoomVotes(Long roomId) {
+        voteLedger.resetRoom(roomId);
+        voteRepository.deleteByRoomId(roomId);
+        songrepository.resetUpvotesByRoomId(roomId);
     }
 
-    public void removeVotes(Long songId) {
-        voteRepository.deleteBySong(songrepository.findById(songId).orElseThrow(() -> new IllegalArgumentException("Song not found")));
+    public void forgetRoomVotes(Long roomId) {
+        voteLedger.forgetRoom(roomId);
+        voteRepository.deleteByRoomId(roomId);
     }
 }
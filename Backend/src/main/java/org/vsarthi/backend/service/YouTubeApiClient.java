@@ -0,0 +1,125 @@
+package org.vsarthi.backend.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.vsarthi.backend.exception.YouTubeUnavailableException;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Sends requests to the YouTube Data API with connect and request timeouts, at most the configured
+ * number at a time, and behind a circuit breaker that stops asking for a while once most recent
+ * requests failed. Every failure is reported as {@link YouTubeUnavailableException}.
+ */
+@Component
+public class YouTubeApiClient {
+    private static final Logger logger = LoggerFactory.getLogger(YouTubeApiClient.class);
+    private static final String NAME = "youtube";
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public YouTubeApiClient(@Value("${hive.youtube.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                            @Value("${hive.youtube.request-timeout-ms:3000}") long requestTimeoutMillis,
+                            @Value("${hive.youtube.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+                            @Value("${hive.youtube.bulkhead.max-wait-ms:200}") long maxWaitMillis,
+                            @Value("${hive.youtube.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                            @Value("${hive.youtube.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+                            @Value("${hive.youtube.circuit-breaker.open-duration-ms:30000}") long openDurationMillis,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this(connectTimeoutMillis, requestTimeoutMillis, maxConcurrentCalls, maxWaitMillis, failureRateThreshold,
+                slidingWindowSize, openDurationMillis, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    YouTubeApiClient(long connectTimeoutMillis, long requestTimeoutMillis, int maxConcurrentCalls, long maxWaitMillis,
+                     float failureRateThreshold, int slidingWindowSize, long openDurationMillis, MeterRegistry meterRegistry) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMillis))
+                .build());
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize)
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMillis))
+                .build());
+        this.bulkhead = bulkheads.bulkhead(NAME);
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("YouTube circuit breaker {}", event.getStateTransition()));
+
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+    }
+
+    /**
+     * Body of a successful GET. A caller waits at most the bulkhead's wait time for its turn and the
+     * request timeout for the answer; while the circuit is open it fails right away.
+     */
+    public String get(URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .build();
+        try {
+            // The bulkhead goes first so that waiting for a permit never counts as a failed call
+            return bulkhead.executeCheckedSupplier(() -> circuitBreaker.executeCheckedSupplier(() -> send(request)));
+        } catch (YouTubeUnavailableException e) {
+            throw e;
+        } catch (CallNotPermittedException e) {
+            throw new YouTubeUnavailableException("YouTube is unavailable, try again later", e);
+        } catch (BulkheadFullException e) {
+            throw new YouTubeUnavailableException("Too many YouTube lookups in progress, try again later", e);
+        } catch (HttpTimeoutException e) {
+            throw new YouTubeUnavailableException("YouTube did not answer in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new YouTubeUnavailableException("Interrupted while asking YouTube", e);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new YouTubeUnavailableException("Failed to reach YouTube: " + e.getMessage(), e);
+        }
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new YouTubeUnavailableException("Failed to fetch video info. Status code: " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -1,66 +1,246 @@
 package org.vsarthi.backend.service;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.vsarthi.backend.DTO.VideoMetadata;
+import org.vsarthi.backend.exception.YouTubeUnavailableException;
 import org.json.JSONObject;
 import org.json.JSONArray;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class YouTubeService {
 
+    // The most ids videos.list accepts in one request
+    public static final int MAX_IDS_PER_REQUEST = 50;
+
+    private static final Pattern VIDEO_LINK = Pattern.compile(
+            "(?:https?://)?(?:[a-z]+\\.)?"
+                    + "(?:youtu\\.be/|youtube(?:-nocookie)?\\.com/(?:watch/?\\?(?:[^#]*?&)?v=|(?:embed|shorts|live|v|e)/))"
+                    + "([A-Za-z0-9_-]{11})(?![A-Za-z0-9_-])",
+            Pattern.CASE_INSENSITIVE);
+
     @Value("${youtube.api.key}")
     private String apiKey;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @Value("${youtube.api.base-url:https://www.googleapis.com/youtube/v3}")
+    private String baseUrl;
+
+    private final VideoMetadataCache metadataCache;
+    private final YouTubeApiClient apiClient;
+    // Lookups that are being fetched right now; concurrent lookups of the same video wait for them
+    private final Map<String, CompletableFuture<VideoMetadata>> inFlight = new ConcurrentHashMap<>();
+    private final Counter cachedLookups;
+    private final Counter sharedLookups;
+    private final Counter fetchedLookups;
+    private final Counter staleLookups;
+    private final Counter apiRequests;
+
+    @Autowired
+    public YouTubeService(VideoMetadataCache metadataCache, YouTubeApiClient apiClient, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(metadataCache, apiClient, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
 
-    public String getVideoTitle(String videoId) throws Exception {
-        JSONObject videoInfo = getVideoInfo(videoId, "snippet");
-        return videoInfo.getJSONObject("snippet").getString("title");
+    YouTubeService(VideoMetadataCache metadataCache, YouTubeApiClient apiClient, MeterRegistry meterRegistry) {
+        this.metadataCache = metadataCache;
+        this.apiClient = apiClient;
+        // The coalescing ratio is shared / (shared + fetched)
+        this.cachedLookups = lookupCounter(meterRegistry, "cache");
+        this.sharedLookups = lookupCounter(meterRegistry, "shared");
+        this.fetchedLookups = lookupCounter(meterRegistry, "fetched");
+        this.staleLookups = lookupCounter(meterRegistry, "stale");
+        this.apiRequests = Counter.builder("youtube.api.requests")
+                .description("videos.list requests handed to the YouTube API client")
+                .register(meterRegistry);
     }
 
-    public boolean isVideoAvailable(String videoId) throws Exception {
-        JSONObject videoInfo = getVideoInfo(videoId, "status");
-        String privacyStatus = videoInfo.getJSONObject("status").getString("privacyStatus");
-        boolean embeddable = videoInfo.getJSONObject("status").getBoolean("embeddable");
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("youtube.metadata.lookups")
+                .description("Video metadata lookups by where the answer came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
 
-        return "public".equals(privacyStatus) && embeddable;
+    /**
+     * Title, availability, duration and thumbnail of a video, fetched with a single request and cached.
+     * Throws if YouTube can't be asked; a video that doesn't exist is returned as not found.
+     */
+    public VideoMetadata getVideoMetadata(String videoId) throws Exception {
+        return getVideoMetadata(List.of(videoId)).get(videoId);
     }
 
-    public String extractVideoId(String youtubeLink) {
-        if (youtubeLink.contains("youtu.be/")) {
-            return youtubeLink.split("youtu.be/")[1];
-        } else if (youtubeLink.contains("v=")) {
-            return youtubeLink.split("v=")[1].split("&")[0];
+    /**
+     * Metadata of every given video, by video id. Videos that aren't cached are fetched with one request
+     * per {@value #MAX_IDS_PER_REQUEST} ids; a video that another caller is already fetching isn't
+     * requested again, its result is shared. When YouTube can't be asked, videos looked up before are
+     * answered from their last known metadata even if it expired.
+     */
+    public Map<String, VideoMetadata> getVideoMetadata(Collection<String> videoIds) throws Exception {
+        Map<String, VideoMetadata> videos = new LinkedHashMap<>();
+        Map<String, CompletableFuture<VideoMetadata>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<VideoMetadata>> shared = new LinkedHashMap<>();
+        for (String videoId : new LinkedHashSet<>(videoIds)) {
+            VideoMetadata cached = metadataCache.get(videoId).orElse(null);
+            if (cached != null) {
+                cachedLookups.increment();
+                videos.put(videoId, cached);
+                continue;
+            }
+            CompletableFuture<VideoMetadata> lookup = new CompletableFuture<>();
+            CompletableFuture<VideoMetadata> running = inFlight.putIfAbsent(videoId, lookup);
+            if (running == null) {
+                fetchedLookups.increment();
+                owned.put(videoId, lookup);
+            } else {
+                sharedLookups.increment();
+                shared.put(videoId, running);
+            }
         }
-        throw new IllegalArgumentException("Invalid YouTube link");
-    }
 
-    private JSONObject getVideoInfo(String videoId, String part) throws Exception {
-        String url = String.format("https://www.googleapis.com/youtube/v3/videos?part=%s&id=%s&key=%s", part, videoId, apiKey);
+        try {
+            List<String> uncached = new ArrayList<>(owned.keySet());
+            for (int from = 0; from < uncached.size(); from += MAX_IDS_PER_REQUEST) {
+                List<String> chunk = uncached.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, uncached.size()));
+                for (VideoMetadata metadata : fetchVideoMetadata(chunk)) {
+                    metadataCache.put(metadata);
+                    videos.put(metadata.videoId(), metadata);
+                    owned.get(metadata.videoId()).complete(metadata);
+                }
+            }
+        } catch (YouTubeUnavailableException e) {
+            serveStale(owned, videos, e);
+        } catch (Exception e) {
+            owned.values().forEach(lookup -> lookup.completeExceptionally(e));
+            throw e;
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .build();
+        for (Map.Entry<String, CompletableFuture<VideoMetadata>> lookup : shared.entrySet()) {
+            try {
+                videos.put(lookup.getKey(), lookup.getValue().get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        return videos;
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    private void serveStale(Map<String, CompletableFuture<VideoMetadata>> owned, Map<String, VideoMetadata> videos,
+                            YouTubeUnavailableException failure) {
+        boolean unanswered = false;
+        for (Map.Entry<String, CompletableFuture<VideoMetadata>> lookup : owned.entrySet()) {
+            if (lookup.getValue().isDone()) {
+                continue;
+            }
+            VideoMetadata stale = metadataCache.getStale(lookup.getKey()).orElse(null);
+            if (stale != null) {
+                staleLookups.increment();
+                videos.put(lookup.getKey(), stale);
+                lookup.getValue().complete(stale);
+            } else {
+                unanswered = true;
+                lookup.getValue().completeExceptionally(failure);
+            }
+        }
+        if (unanswered) {
+            throw failure;
+        }
+    }
 
-        if (response.statusCode() != 200) {
-            throw new Exception("Failed to fetch video info. Status code: " + response.statusCode());
+    /**
+     * The 11 character id of the video a link points to. Understands youtu.be links, watch links with
+     * the v parameter anywhere in the query, embed, shorts, live and /v/ links, on www, m, music and
+     * youtube-nocookie hosts, with or without scheme.
+     */
+    public String extractVideoId(String youtubeLink) {
+        Matcher matcher = youtubeLink != null ? VIDEO_LINK.matcher(youtubeLink.strip()) : null;
+        if (matcher == null || !matcher.lookingAt()) {
+            throw new IllegalArgumentException("Invalid YouTube link");
         }
+        return matcher.group(1);
+    }
+
+    private List<VideoMetadata> fetchVideoMetadata(List<String> videoIds) throws Exception {
+        String ids = videoIds.stream()
+                .map(videoId -> URLEncoder.encode(videoId, StandardCharsets.UTF_8))
+                .collect(Collectors.joining(","));
+        String url = String.format("%s/videos?part=snippet,status,contentDetails&maxResults=%d&id=%s&key=%s", baseUrl, MAX_IDS_PER_REQUEST, ids, apiKey);
 
-        JSONObject jsonResponse = new JSONObject(response.body());
+        apiRequests.increment();
+        JSONObject jsonResponse = new JSONObject(apiClient.get(URI.create(url)));
         JSONArray items = jsonResponse.getJSONArray("items");
 
-        if (items.isEmpty()) {
-            throw new Exception("Video not found");
+        Map<String, JSONObject> found = new LinkedHashMap<>();
+        for (int i = 0; i < items.length(); i++) {
+            JSONObject item = items.getJSONObject(i);
+            found.put(item.getString("id"), item);
         }
 
-        return items.getJSONObject(0);
+        // Ids that YouTube doesn't return don't exist or are private
+        List<VideoMetadata> videos = new ArrayList<>(videoIds.size());
+        for (String videoId : videoIds) {
+            JSONObject item = found.get(videoId);
+            videos.add(item != null ? toMetadata(videoId, item) : VideoMetadata.notFound(videoId));
+        }
+        return videos;
     }
 
-}
\ No newline at end of file
+    private static VideoMetadata toMetadata(String videoId, JSONObject videoInfo) {
+        JSONObject snippet = videoInfo.optJSONObject("snippet", new JSONObject());
+        JSONObject status = videoInfo.optJSONObject("status", new JSONObject());
+        JSONObject contentDetails = videoInfo.optJSONObject("contentDetails", new JSONObject());
+
+        boolean available = "public".equals(status.optString("privacyStatus")) && status.optBoolean("embeddable");
+        return new VideoMetadata(videoId, true, snippet.optString("title", null), available,
+                durationSeconds(contentDetails.optString("duration", null)), thumbnailUrl(snippet.optJSONObject("thumbnails")));
+    }
+
+    // ISO-8601 durations such as PT4M13S; live streams report P0D
+    private static Long durationSeconds(String duration) {
+        if (duration == null) {
+            return null;
+        }
+        try {
+            return Duration.parse(duration).getSeconds();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String thumbnailUrl(JSONObject thumbnails) {
+        if (thumbnails == null) {
+            return null;
+        }
+        for (String size : new String[]{"high", "medium", "default"}) {
+            JSONObject thumbnail = thumbnails.optJSONObject(size);
+            if (thumbnail != null && thumbnail.has("url")) {
+                return thumbnail.getString("url");
+            }
+        }
+        return null;
+    }
+}
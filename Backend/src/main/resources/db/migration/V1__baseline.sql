@@ -0,0 +1,86 @@
+-- The schema Hibernate generated from the entities before migrations took over.
+-- Databases created back then already have it and skip this script.
+
+CREATE TABLE users (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    email varchar(255),
+    oauth2id varchar(255),
+    oauth2provider varchar(255),
+    password varchar(255),
+    refresh_token varchar(255),
+    username varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE room (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255),
+    shareable_link varchar(255),
+    creator_id bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE room_users (
+    room_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    PRIMARY KEY (room_id, user_id)
+);
+
+CREATE TABLE song (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    is_current boolean DEFAULT false NOT NULL,
+    queue_position integer,
+    title varchar(255),
+    upvotes integer NOT NULL,
+    version bigint,
+    youtube_link varchar(255),
+    added_by_id bigint,
+    room_id bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_votes (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    is_upvote boolean NOT NULL,
+    song_id bigint,
+    user_id bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE playlists (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    description varchar(255),
+    genre varchar(255),
+    name varchar(255),
+    creator_id bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE playlist_songs (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    duration bigint,
+    position integer NOT NULL,
+    song_name varchar(255) NOT NULL,
+    thumbnail_url varchar(255),
+    youtube_link varchar(255) NOT NULL,
+    added_by bigint,
+    playlist_id bigint NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE users ADD CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
+ALTER TABLE users ADD CONSTRAINT UK8v9q8o2ragafta0x501qfip03 UNIQUE (refresh_token);
+ALTER TABLE room ADD CONSTRAINT UKrwhy22dny5fhhu2xngxxl6vkm UNIQUE (shareable_link);
+ALTER TABLE song ADD CONSTRAINT UKh2wr75mnqduwy838glx91uf99 UNIQUE (youtube_link, room_id);
+ALTER TABLE user_votes ADD CONSTRAINT UK475vbhjw781h4mawhxf63hwo5 UNIQUE (user_id, song_id);
+
+ALTER TABLE room ADD CONSTRAINT FKd0c3yqxtkirxoe1ou6439dsis FOREIGN KEY (creator_id) REFERENCES users;
+ALTER TABLE room_users ADD CONSTRAINT FK6joy9hqfc79xqekja7ncepnvj FOREIGN KEY (room_id) REFERENCES room;
+ALTER TABLE room_users ADD CONSTRAINT FKakm39gdnefr66uey9lf1ya26w FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE song ADD CONSTRAINT FK9spj92ie3otq47j3dx7ful5v3 FOREIGN KEY (added_by_id) REFERENCES users;
+ALTER TABLE song ADD CONSTRAINT FKsd0p6299ox5wif8imx35powhx FOREIGN KEY (room_id) REFERENCES room;
+ALTER TABLE user_votes ADD CONSTRAINT FK7sg00sr5h4395xrgufxvsmagv FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE user_votes ADD CONSTRAINT FKcko744eaqcegug9s4iwpb8qvm FOREIGN KEY (song_id) REFERENCES song;
+ALTER TABLE playlists ADD CONSTRAINT FKgunspctpbj5cb98n83iun5ijv FOREIGN KEY (creator_id) REFERENCES users;
+ALTER TABLE playlist_songs ADD CONSTRAINT FKb7vb6x1xbfdomqoj63n3byuev FOREIGN KEY (added_by) REFERENCES users;
+ALTER TABLE playlist_songs ADD CONSTRAINT FKqfutupgj870d2k31ldxqqwr8w FOREIGN KEY (playlist_id) REFERENCES playlists;
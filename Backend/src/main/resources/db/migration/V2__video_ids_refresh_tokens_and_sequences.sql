@@ -0,0 +1,30 @@
+-- Catches the schema up with the entities: canonical video ids, the refresh token store and pooled
+-- id sequences, which V5 moves past the ids already stored.
+
+ALTER TABLE song ADD COLUMN IF NOT EXISTS video_id varchar(11);
+ALTER TABLE playlist_songs ADD COLUMN IF NOT EXISTS video_id varchar(11);
+
+-- A video is queued once per room whatever link it came with, which replaces uniqueness by link
+ALTER TABLE song DROP CONSTRAINT IF EXISTS UKh2wr75mnqduwy838glx91uf99;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_song_room_video ON song (room_id, video_id);
+CREATE INDEX IF NOT EXISTS idx_song_video_id ON song (video_id);
+CREATE INDEX IF NOT EXISTS idx_playlist_songs_video_id ON playlist_songs (video_id);
+
+-- Refresh tokens are kept in refresh_tokens now
+ALTER TABLE users DROP COLUMN IF EXISTS refresh_token;
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    token_hash varchar(64) NOT NULL,
+    expires_at bigint NOT NULL,
+    family varchar(36) NOT NULL,
+    used_at bigint NOT NULL,
+    user_id bigint NOT NULL,
+    PRIMARY KEY (token_hash)
+);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family);
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS room_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS song_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_votes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS playlist_songs_seq START WITH 1 INCREMENT BY 50;
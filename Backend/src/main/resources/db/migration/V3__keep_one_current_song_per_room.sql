@@ -0,0 +1,5 @@
+-- Before there was a constraint, a room could end up with more than one current song. Each room keeps
+-- its latest current song, so the unique index V4 creates on the current song can be built.
+UPDATE song SET is_current = false
+WHERE is_current
+  AND EXISTS (SELECT 1 FROM song newer WHERE newer.room_id = song.room_id AND newer.is_current AND newer.id > song.id);
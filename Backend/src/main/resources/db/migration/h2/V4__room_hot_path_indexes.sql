@@ -0,0 +1,13 @@
+-- The PostgreSQL indexes as far as H2 supports them: no partial or INCLUDE indexes, so key columns
+-- stand in for included ones and a generated column carries the one current song per room.
+
+ALTER TABLE song ADD COLUMN IF NOT EXISTS current_room_id bigint GENERATED ALWAYS AS (CASE WHEN is_current THEN room_id END);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_song_room_current ON song (current_room_id);
+
+CREATE INDEX IF NOT EXISTS idx_song_room_queue ON song (room_id, upvotes DESC, queue_position);
+CREATE INDEX IF NOT EXISTS idx_song_room_waiting ON song (room_id, is_current, upvotes DESC, queue_position);
+
+CREATE INDEX IF NOT EXISTS idx_user_votes_song ON user_votes (song_id, user_id);
+
+CREATE INDEX IF NOT EXISTS idx_room_users_user ON room_users (user_id, room_id);
+CREATE INDEX IF NOT EXISTS idx_room_creator ON room (creator_id);
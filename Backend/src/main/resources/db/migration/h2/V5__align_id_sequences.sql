@@ -0,0 +1,6 @@
+-- The PostgreSQL setval calls, written the way H2 restarts a sequence.
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM users);
+ALTER SEQUENCE room_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM room);
+ALTER SEQUENCE song_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM song);
+ALTER SEQUENCE user_votes_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM user_votes);
+ALTER SEQUENCE playlist_songs_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM playlist_songs);
@@ -0,0 +1,17 @@
+-- The PostgreSQL backfill, written with H2's MERGE and REGEXP_SUBSTR.
+MERGE INTO song USING (
+    SELECT id, room_id, video_id, ROW_NUMBER() OVER (PARTITION BY room_id, video_id ORDER BY id) AS n
+    FROM (
+        SELECT id, room_id, REGEXP_SUBSTR(TRIM(youtube_link), '^(?:https?://)?(?:[a-z]+\.)?(?:youtu\.be/|youtube(?:-nocookie)?\.com/(?:watch/?\?(?:[^#]*?&)?v=|(?:embed|shorts|live|v|e)/))([A-Za-z0-9_-]{11})(?![A-Za-z0-9_-])', 1, 1, 'i', 1) AS video_id
+        FROM song
+        WHERE video_id IS NULL
+    ) links
+    WHERE video_id IS NOT NULL
+) parsed
+ON song.id = parsed.id
+    AND parsed.n = 1
+    AND NOT EXISTS (SELECT 1 FROM song other WHERE other.room_id = parsed.room_id AND other.video_id = parsed.video_id)
+WHEN MATCHED THEN UPDATE SET video_id = parsed.video_id;
+
+UPDATE playlist_songs SET video_id = REGEXP_SUBSTR(TRIM(youtube_link), '^(?:https?://)?(?:[a-z]+\.)?(?:youtu\.be/|youtube(?:-nocookie)?\.com/(?:watch/?\?(?:[^#]*?&)?v=|(?:embed|shorts|live|v|e)/))([A-Za-z0-9_-]{11})(?![A-Za-z0-9_-])', 1, 1, 'i', 1)
+WHERE video_id IS NULL;
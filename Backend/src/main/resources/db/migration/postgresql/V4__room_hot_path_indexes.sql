@@ -0,0 +1,17 @@
+-- Indexes for the queries every room runs on each queue read, vote and song change.
+
+-- At most one current song per room (V3 repaired existing rows); also answers the current song lookups
+CREATE UNIQUE INDEX IF NOT EXISTS uk_song_room_current ON song (room_id) WHERE is_current;
+
+-- The whole queue in play order
+CREATE INDEX IF NOT EXISTS idx_song_room_queue ON song (room_id, upvotes DESC, queue_position ASC NULLS LAST);
+
+-- The songs waiting to play, without the current one
+CREATE INDEX IF NOT EXISTS idx_song_room_waiting ON song (room_id, upvotes DESC, queue_position) WHERE NOT is_current;
+
+-- Vote counts and voters of a song from the index alone
+CREATE INDEX IF NOT EXISTS idx_user_votes_song ON user_votes (song_id) INCLUDE (user_id);
+
+-- Rooms a user joined, and rooms a user created
+CREATE INDEX IF NOT EXISTS idx_room_users_user ON room_users (user_id) INCLUDE (room_id);
+CREATE INDEX IF NOT EXISTS idx_room_creator ON room (creator_id);
@@ -0,0 +1,7 @@
+-- Ids stored before V2 came from identity columns. Each sequence continues after the largest stored id,
+-- so the ids handed out from the sequences never collide with them.
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false);
+SELECT setval('room_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM room), false);
+SELECT setval('song_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM song), false);
+SELECT setval('user_votes_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM user_votes), false);
+SELECT setval('playlist_songs_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM playlist_songs), false);
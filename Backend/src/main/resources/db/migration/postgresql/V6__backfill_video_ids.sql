@@ -0,0 +1,19 @@
+-- Fills in the video id of rows stored before it was kept, with the link pattern YouTubeService uses.
+-- Rows whose link doesn't match keep none, and so does a song that repeats a video already in its room;
+-- the first such song keeps the id.
+UPDATE song SET video_id = parsed.video_id
+FROM (
+    SELECT id, room_id, video_id, ROW_NUMBER() OVER (PARTITION BY room_id, video_id ORDER BY id) AS n
+    FROM (
+        SELECT id, room_id, (regexp_match(trim(youtube_link), '^(?:https?://)?(?:[a-z]+\.)?(?:youtu\.be/|youtube(?:-nocookie)?\.com/(?:watch/?\?(?:[^#]*?&)?v=|(?:embed|shorts|live|v|e)/))([A-Za-z0-9_-]{11})(?![A-Za-z0-9_-])', 'i'))[1] AS video_id
+        FROM song
+        WHERE video_id IS NULL
+    ) links
+    WHERE video_id IS NOT NULL
+) parsed
+WHERE song.id = parsed.id
+  AND parsed.n = 1
+  AND NOT EXISTS (SELECT 1 FROM song other WHERE other.room_id = parsed.room_id AND other.video_id = parsed.video_id);
+
+UPDATE playlist_songs SET video_id = (regexp_match(trim(youtube_link), '^(?:https?://)?(?:[a-z]+\.)?(?:youtu\.be/|youtube(?:-nocookie)?\.com/(?:watch/?\?(?:[^#]*?&)?v=|(?:embed|shorts|live|v|e)/))([A-Za-z0-9_-]{11})(?![A-Za-z0-9_-])', 'i'))[1]
+WHERE video_id IS NULL;
@@ -0,0 +1,141 @@
+package org.vsarthi.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.vsarthi.backend.DTO.UserDetailsServiceImpl;
+import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.model.Users;
+import org.vsarthi.backend.service.JwtService;
+import org.vsarthi.backend.service.TokenVersions;
+import org.vsarthi.backend.service.UserService;
+import org.vsarthi.backend.service.VerifiedTokenCache;
+
+import jakarta.servlet.http.Cookie;
+
+class JwtAuthenticationFilterTest {
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilterTest.class);
+
+    private static final String EMAIL = "user@example.com";
+
+    private JwtService jwtService;
+    private UserService userService;
+    private JwtAuthenticationFilter filter;
+    private Users user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "0123456789abcdef0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 60_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+        userService = mock(UserService.class);
+        filter = new JwtAuthenticationFilter(new VerifiedTokenCache(jwtService, userDetailsService, new TokenVersions(), 100, 300_000), userService);
+
+        user = new Users();
+        user.setId(1L);
+        user.setEmail(EMAIL);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesFromAccessTokenCookie() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/api/rooms", new Cookie("accessToken", jwtService.generateAccessToken(user, 0))), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(((UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getEmail()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    void refreshesExpiredAccessToken() throws Exception {
+        String expired = expiredAccessToken();
+        when(userService.refreshedAccessToken("refresh")).thenReturn(jwtService.generateAccessToken(user, 0));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/api/rooms", new Cookie("accessToken", expired), new Cookie("refreshToken", "refresh")), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getHeader("Set-Cookie")).startsWith("accessToken=");
+        assertThat(((UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getEmail()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    void rejectsExpiredAccessTokenWithoutRefreshToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/api/rooms", new Cookie("accessToken", expiredAccessToken())), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentAsString()).isEqualTo("Session expired. Please log in again.");
+    }
+
+    @Test
+    void webSocketHandshakeIsNeverRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/ws/info", new Cookie("accessToken", "garbage")), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    // Run with -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAuthenticatedRequest() throws Exception {
+        Cookie accessToken = new Cookie("accessToken", jwtService.generateAccessToken(user, 0));
+        Cookie other = new Cookie("theme", "dark");
+        for (int i = 0; i < 20_000; i++) {
+            authenticatedRequest(other, accessToken);
+        }
+        int iterations = 200_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            authenticatedRequest(other, accessToken);
+        }
+        logger.info("JwtAuthenticationFilter: {} ns/request", (System.nanoTime() - start) / iterations);
+    }
+
+    private void authenticatedRequest(Cookie... cookies) throws Exception {
+        filter.doFilter(request("/api/rooms", cookies), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+    }
+
+    private String expiredAccessToken() {
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", -1_000L);
+        String token = jwtService.generateAccessToken(user, 0);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 60_000L);
+        return token;
+    }
+
+    private static MockHttpServletRequest request(String uri, Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setCookies(cookies);
+        return request;
+    }
+}
@@ -0,0 +1,134 @@
+package org.vsarthi.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class SchemaMigrationsTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SchemaMigrations schemaMigrations;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        schemaMigrations = new SchemaMigrations(database, "db/migration");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void emptyDatabaseGetsEveryVersionOnce() throws Exception {
+        schemaMigrations.migrate();
+        schemaMigrations.migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT version FROM schema_history ORDER BY version", Integer.class))
+                .containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_tokens", Long.class)).isZero();
+    }
+
+    @Test
+    void schemaCreatedBeforeMigrationsKeepsItsRows() throws Exception {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(database);
+        jdbcTemplate.update("INSERT INTO users (id, email, refresh_token) VALUES (7, 'old@example.com', 'token')");
+
+        schemaMigrations.migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT version FROM schema_history ORDER BY version", Integer.class))
+                .containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = 7", String.class)).isEqualTo("old@example.com");
+    }
+
+    @Test
+    void sequencesContinueAfterTheStoredIds() throws Exception {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(database);
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (120, 'old@example.com')");
+
+        schemaMigrations.migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class)).isEqualTo(121);
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR song_seq", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void roomWithSeveralCurrentSongsKeepsTheLatest() throws Exception {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(database);
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (1, 'creator@example.com')");
+        jdbcTemplate.update("INSERT INTO room (id, name, creator_id) VALUES (1, 'Room', 1), (2, 'Other', 1)");
+        jdbcTemplate.update("INSERT INTO song (id, youtube_link, upvotes, is_current, room_id) VALUES "
+                + "(1, 'https://youtu.be/a', 0, true, 1), (2, 'https://youtu.be/b', 0, true, 1), "
+                + "(3, 'https://youtu.be/c', 0, false, 1), (4, 'https://youtu.be/a', 0, true, 2)");
+
+        schemaMigrations.migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM song WHERE is_current ORDER BY id", Long.class))
+                .containsExactly(2L, 4L);
+    }
+
+    @Test
+    void songsStoredWithoutVideoIdsGetThem() throws Exception {
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(database);
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (1, 'creator@example.com')");
+        jdbcTemplate.update("INSERT INTO room (id, name, creator_id) VALUES (1, 'Room', 1), (2, 'Other', 1)");
+        jdbcTemplate.update("INSERT INTO song (id, youtube_link, upvotes, is_current, room_id) VALUES "
+                + "(1, 'https://youtu.be/dQw4w9WgXcQ', 0, false, 1), "
+                + "(2, 'https://www.youtube.com/watch?v=dQw4w9WgXcQ', 0, false, 1), "
+                + "(3, 'not a link', 0, false, 1), "
+                + "(4, ' HTTPS://YOUTUBE.COM/watch?feature=share&v=abcdefghijk', 0, false, 1), "
+                + "(5, 'https://youtu.be/dQw4w9WgXcQ', 0, false, 2)");
+        jdbcTemplate.update("INSERT INTO playlists (id, name, creator_id) VALUES (1, 'Playlist', 1)");
+        jdbcTemplate.update("INSERT INTO playlist_songs (id, position, song_name, youtube_link, playlist_id) VALUES "
+                + "(1, 0, 'Song', 'https://youtube.com/shorts/abcdefghijk', 1)");
+
+        schemaMigrations.migrate();
+
+        // The second song with the same video in room 1 is left without one, as the unique index requires
+        assertThat(jdbcTemplate.queryForList("SELECT video_id FROM song ORDER BY id", String.class))
+                .containsExactly("dQw4w9WgXcQ", null, null, "abcdefghijk", "dQw4w9WgXcQ");
+        assertThat(jdbcTemplate.queryForObject("SELECT video_id FROM playlist_songs WHERE id = 1", String.class))
+                .isEqualTo("abcdefghijk");
+    }
+
+    @Test
+    void scriptChangedAfterItRanStopsTheMigration() throws Exception {
+        schemaMigrations.migrate();
+        jdbcTemplate.update("UPDATE schema_history SET checksum = checksum + 1 WHERE version = 2");
+
+        assertThatThrownBy(schemaMigrations::migrate)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("V2__video_ids_refresh_tokens_and_sequences.sql was changed");
+    }
+
+    @Test
+    void roomHasAtMostOneCurrentSong() throws Exception {
+        schemaMigrations.migrate();
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (1, 'creator@example.com')");
+        jdbcTemplate.update("INSERT INTO room (id, name, creator_id) VALUES (1, 'Room', 1)");
+        jdbcTemplate.update("INSERT INTO song (id, video_id, upvotes, is_current, room_id) VALUES (1, 'a', 0, true, 1)");
+        jdbcTemplate.update("INSERT INTO song (id, video_id, upvotes, is_current, room_id) VALUES (2, 'b', 0, false, 1)");
+        jdbcTemplate.update("INSERT INTO song (id, video_id, upvotes, is_current, room_id) VALUES (3, 'c', 0, false, 1)");
+
+        assertThatThrownBy(() -> jdbcTemplate.update("UPDATE song SET is_current = true WHERE id = 2"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        jdbcTemplate.update("UPDATE song SET is_current = false WHERE id = 1");
+        jdbcTemplate.update("UPDATE song SET is_current = true WHERE id = 2");
+    }
+}
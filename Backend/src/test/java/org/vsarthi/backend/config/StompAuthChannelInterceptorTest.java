@@ -0,0 +1,66 @@
+package org.vsarthi.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.core.Authentication;
+import org.vsarthi.backend.model.AuthUser;
+import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.service.VerifiedTokenCache;
+
+class StompAuthChannelInterceptorTest {
+
+    private final VerifiedTokenCache verifiedTokens = mock(VerifiedTokenCache.class);
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(verifiedTokens);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void connectWithValidTokenAttachesPrincipal() {
+        UserPrincipal userPrincipal = new UserPrincipal(new AuthUser(1L, "user@example.com", "user", null));
+        when(verifiedTokens.resolve("token")).thenReturn(userPrincipal);
+        Message<byte[]> connect = frame(StompCommand.CONNECT, "Bearer token");
+
+        interceptor.preSend(connect, channel);
+
+        Authentication user = (Authentication) StompHeaderAccessor.getAccessor(connect, StompHeaderAccessor.class).getUser();
+        assertThat(user.getPrincipal()).isSameAs(userPrincipal);
+    }
+
+    @Test
+    void connectWithInvalidTokenIsRejected() {
+        when(verifiedTokens.resolve("bad")).thenThrow(new IllegalArgumentException("Invalid token"));
+
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer bad"), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void laterFramesAreNotAuthenticatedAgain() {
+        interceptor.preSend(frame(StompCommand.SEND, "Bearer token"), channel);
+        interceptor.preSend(frame(StompCommand.CONNECT, null), channel);
+
+        verify(verifiedTokens, never()).resolve(any());
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session");
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
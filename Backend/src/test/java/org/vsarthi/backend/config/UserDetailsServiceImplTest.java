@@ -0,0 +1,72 @@
+package org.vsarthi.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.vsarthi.backend.DTO.UserDetailsServiceImpl;
+import org.vsarthi.backend.model.Room;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.model.Users;
+import org.vsarthi.backend.model.Vote;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@Import(UserDetailsServiceImpl.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UserDetailsServiceImplTest {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void loadingUserIsOneQueryRegardlessOfHistory() {
+        Users user = new Users();
+        user.setUsername("heavy");
+        user.setEmail("heavy@example.com");
+        user.setPassword("hash");
+        entityManager.persist(user);
+        for (int i = 0; i < 50; i++) {
+            Room room = new Room("Room " + i, user);
+            entityManager.persist(room);
+            for (int j = 0; j < 10; j++) {
+                Song song = new Song();
+                song.setYoutubeLink("https://youtu.be/" + i + "-" + j);
+                song.setRoom(room);
+                song.setAddedBy(user);
+                entityManager.persist(song);
+                Vote vote = new Vote();
+                vote.setUser(user);
+                vote.setSong(song);
+                vote.setUpvote(true);
+                entityManager.persist(vote);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        UserPrincipal principal = (UserPrincipal) userDetailsService.loadUserByEmail("heavy@example.com");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(principal.getUser().getId()).isEqualTo(user.getId());
+        assertThat(principal.getEmail()).isEqualTo("heavy@example.com");
+        assertThat(principal.getPassword()).isEqualTo("hash");
+    }
+}
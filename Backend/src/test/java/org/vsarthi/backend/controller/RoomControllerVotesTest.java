@@ -0,0 +1,127 @@
+package org.vsarthi.backend.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.vsarthi.backend.DTO.VoteAck;
+import org.vsarthi.backend.config.StompAuthChannelInterceptor;
+import org.vsarthi.backend.DTO.VoteMessage;
+import org.vsarthi.backend.model.AuthUser;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.model.Users;
+import org.vsarthi.backend.service.RoomCommandExecutor;
+import org.vsarthi.backend.service.RoomService;
+import org.vsarthi.backend.service.SongSubmissions;
+import org.vsarthi.backend.service.VerifiedTokenCache;
+import org.vsarthi.backend.service.VotingService;
+
+class RoomControllerVotesTest {
+
+    private static final Long ROOM_ID = 1L;
+
+    private final VotingService votingService = mock(VotingService.class);
+    private RoomController controller;
+    private Principal principal;
+
+    @BeforeEach
+    void setUp() {
+        controller = new RoomController(mock(RoomService.class), mock(SimpMessagingTemplate.class), votingService,
+                new RoomCommandExecutor(), mock(SongSubmissions.class));
+        principal = connect(new UserPrincipal(new AuthUser(7L, "user@example.com", "user", null)));
+
+        when(votingService.getRoomIdForSong(any())).thenReturn(ROOM_ID);
+        when(votingService.vote(any(), any())).thenAnswer(invocation -> song(invocation.getArgument(0), 3));
+    }
+
+    @Test
+    void singleVoteIsAcknowledgedWithTheNewCount() throws Exception {
+        List<VoteAck> acks = controller.handleVote(ROOM_ID, message(10L, null), principal).get();
+
+        assertThat(acks).containsExactly(VoteAck.accepted(10L, 3));
+        verify(votingService).vote(eq(10L), any(Users.class));
+    }
+
+    @Test
+    void batchGetsOneEntryPerSong() throws Exception {
+        when(votingService.getRoomIdForSong(12L)).thenReturn(2L);
+        when(votingService.vote(eq(13L), any())).thenThrow(new RuntimeException("Song not found"));
+
+        List<VoteAck> acks = controller.handleVote(ROOM_ID, message(11L, List.of(11L, 12L, 13L)), principal).get();
+
+        assertThat(acks).containsExactly(
+                VoteAck.accepted(11L, 3),
+                VoteAck.rejected(12L, "Song not in room"),
+                VoteAck.rejected(13L, "Song not found"));
+        verify(votingService, never()).vote(eq(12L), any());
+    }
+
+    @Test
+    void batchOverTheCapIsRejectedWhole() throws Exception {
+        List<Long> songIds = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        List<VoteAck> acks = controller.handleVote(ROOM_ID, message(null, songIds), principal).get();
+
+        assertThat(acks).hasSize(101).allSatisfy(ack -> assertThat(ack.getError()).isEqualTo("Too many votes in one message"));
+        verify(votingService, never()).vote(any(), any());
+    }
+
+    @Test
+    void sessionIsKnownByTheUsersEmail() {
+        // Acknowledgements go to /user/queue/votes, resolved by this name; display names aren't unique
+        assertThat(principal.getName()).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void sessionWithoutUserCannotVote() throws Exception {
+        List<VoteAck> acks = controller.handleVote(ROOM_ID, message(10L, null), null).get();
+
+        assertThat(acks).containsExactly(VoteAck.rejected(10L, "Not authenticated"));
+        verify(votingService, never()).vote(any(), any());
+    }
+
+    // The principal a session gets from its CONNECT frame, which later frames carry
+    private static Principal connect(UserPrincipal userPrincipal) {
+        VerifiedTokenCache verifiedTokens = mock(VerifiedTokenCache.class);
+        when(verifiedTokens.resolve("token")).thenReturn(userPrincipal);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId("session");
+        accessor.addNativeHeader("Authorization", "Bearer token");
+        accessor.setLeaveMutable(true);
+        Message<byte[]> connect = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        new StompAuthChannelInterceptor(verifiedTokens).preSend(connect, mock(MessageChannel.class));
+        return StompHeaderAccessor.getAccessor(connect, StompHeaderAccessor.class).getUser();
+    }
+
+    private static VoteMessage message(Long songId, List<Long> songIds) {
+        VoteMessage message = new VoteMessage();
+        message.setSongId(songId);
+        message.setSongIds(songIds);
+        return message;
+    }
+
+    private static Song song(Long id, int upvotes) {
+        Song song = new Song();
+        song.setId(id);
+        song.setUpvotes(upvotes);
+        return song;
+    }
+}
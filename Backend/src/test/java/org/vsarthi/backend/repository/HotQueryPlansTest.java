@@ -0,0 +1,130 @@
+package org.vsarthi.backend.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.vsarthi.backend.model.Room;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.Users;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Runs EXPLAIN on the SQL Hibernate sends for the queries rooms run all the time, and fails if any of
+ * them reads a whole table.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.vsarthi.backend.repository.HotQueryPlansTest$RecordingInspector"
+})
+class HotQueryPlansTest {
+
+    private static final int ROOMS = 20;
+    private static final int SONGS_PER_ROOM = 50;
+
+    @Autowired
+    private SongRepository songRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Users user;
+    private Long roomId;
+    private Long songId;
+
+    @BeforeEach
+    void setUp() {
+        user = new Users();
+        user.setUsername("user");
+        user.setEmail("user@example.com");
+        entityManager.persist(user);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new Room("Room " + i, user);
+            entityManager.persist(room);
+            rooms.add(room);
+        }
+        entityManager.flush();
+
+        List<Object[]> songs = new ArrayList<>();
+        List<Object[]> votes = new ArrayList<>();
+        for (Room room : rooms) {
+            for (int i = 0; i < SONGS_PER_ROOM; i++) {
+                long id = songs.size() + 1;
+                songs.add(new Object[]{id, "https://youtu.be/" + id, "video" + id, i % 7, i == 0, room.getId()});
+                votes.add(new Object[]{id, user.getId(), id});
+            }
+            jdbcTemplate.update("INSERT INTO room_users (room_id, user_id) VALUES (?, ?)", room.getId(), user.getId());
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO song (id, youtube_link, video_id, upvotes, is_current, room_id) VALUES (?, ?, ?, ?, ?, ?)", songs);
+        jdbcTemplate.batchUpdate("INSERT INTO user_votes (id, user_id, song_id, is_upvote) VALUES (?, ?, ?, true)", votes);
+        entityManager.clear();
+
+        roomId = rooms.get(ROOMS / 2).getId();
+        songId = (long) SONGS_PER_ROOM * ROOMS / 2 + 3;
+        RecordingInspector.statements.clear();
+    }
+
+    @Test
+    void roomQueriesUseIndexes() {
+        songRepository.findByRoomIdOrderByUpvotesDesc(roomId);
+        songRepository.findByRoomIdAndIsCurrentFalseOrderByUpvotesDesc(roomId);
+        songRepository.findByRoomIdAndIsCurrent(roomId, true);
+        songRepository.findAllByRoomIdAndIsCurrent(roomId, true);
+        songRepository.findVideoIdsByRoomIdAndVideoIdIn(roomId, Set.of("video1", "video2"));
+        songRepository.findRoomIdById(songId);
+        roomRepository.findByCreatorId(user.getId());
+        roomRepository.findJoinedUserIds(roomId);
+        entityManager.clear();
+        roomRepository.findAllByJoinedUsersContaining(user);
+
+        assertThat(RecordingInspector.statements).hasSizeGreaterThan(9);
+        assertNoTableScans();
+    }
+
+    @Test
+    void voteQueriesUseIndexes() {
+        voteRepository.countBySongId(songId);
+        voteRepository.existsBySongIdAndUserId(songId, user.getId());
+        voteRepository.findUserIdsBySongId(songId);
+
+        assertThat(RecordingInspector.statements).hasSize(3);
+        assertNoTableScans();
+    }
+
+    private void assertNoTableScans() {
+        for (String sql : RecordingInspector.statements) {
+            // Every parameter of these queries is an id, a flag or a video id, all of which 1 converts to
+            Object[] parameters = Collections.nCopies((int) sql.chars().filter(c -> c == '?').count(), 1).toArray();
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+            assertThat(plan).as(sql).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
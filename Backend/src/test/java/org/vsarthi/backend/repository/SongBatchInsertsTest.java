@@ -0,0 +1,97 @@
+package org.vsarthi.backend.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vsarthi.backend.model.Room;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.Users;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Each insert run commits its own transactions, so the benchmark works outside a test transaction.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class SongBatchInsertsTest {
+    private static final Logger logger = LoggerFactory.getLogger(SongBatchInsertsTest.class);
+
+    private static final AtomicLong videos = new AtomicLong();
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Users creator;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        creator = new Users();
+        creator.setUsername("creator");
+        creator.setEmail("creator" + videos.incrementAndGet() + "@example.com");
+        creator = userRepository.save(creator);
+        room = roomRepository.save(new Room("Room", creator));
+    }
+
+    // Run with -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkSongInserts() {
+        int rows = 20_000;
+        for (int round = 0; round < 3; round++) {
+            // A batch size of one is what inserting with identity ids amounts to
+            long unbatched = insertSongs(rows, 1);
+            long batched = insertSongs(rows, 50);
+            logger.info("Song inserts: {} rows/s one by one, {} rows/s in batches of 50",
+                    rows * 1_000_000_000L / unbatched, rows * 1_000_000_000L / batched);
+        }
+    }
+
+    private long insertSongs(int rows, int batchSize) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            Room managedRoom = entityManager.getReference(Room.class, room.getId());
+            for (int i = 0; i < rows; i++) {
+                Song song = song();
+                song.setRoom(managedRoom);
+                entityManager.persist(song);
+                if ((i + 1) % 1_000 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    managedRoom = entityManager.getReference(Room.class, room.getId());
+                }
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private Song song() {
+        String videoId = String.format("%011d", videos.incrementAndGet());
+        Song song = new Song();
+        song.setYoutubeLink("https://youtu.be/" + videoId);
+        song.setVideoId(videoId);
+        song.setTitle("Song " + videoId);
+        song.setAddedBy(creator);
+        return song;
+    }
+}
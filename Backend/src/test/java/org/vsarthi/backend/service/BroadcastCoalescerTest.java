@@ -0,0 +1,92 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BroadcastCoalescerTest {
+
+    private static final long WINDOW_MS = 50;
+    private static final long MAX_DELAY_MS = 200;
+
+    private final BroadcastCoalescer coalescer = new BroadcastCoalescer(WINDOW_MS, MAX_DELAY_MS);
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void burstIsPublishedOnceWithTheLatestSubmission() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        coalescer.submit("room", () -> published.add("first"));
+        coalescer.submit("room", () -> published.add("second"));
+        coalescer.submit("room", () -> {
+            published.add("third");
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(2 * WINDOW_MS);
+        assertThat(published).containsExactly("third");
+    }
+
+    @Test
+    void quietKeyIsPublishedAfterTheWindow() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+        coalescer.submit("room", done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(WINDOW_MS);
+    }
+
+    @Test
+    void steadySubmissionsArePublishedByTheMaxDelay() throws Exception {
+        // Never quiet for a whole window, so only the maximum delay lets broadcasts out
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(3 * MAX_DELAY_MS);
+        int submitted = 0;
+        while (System.nanoTime() < end) {
+            int number = ++submitted;
+            coalescer.submit("room", () -> published.add("broadcast " + number));
+            Thread.sleep(WINDOW_MS / 5);
+        }
+
+        assertThat(published).isNotEmpty().hasSizeLessThan(submitted);
+    }
+
+    @Test
+    void keysAreCoalescedOnTheirOwn() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        coalescer.submit("room:1", () -> {
+            published.add("room 1");
+            done.countDown();
+        });
+        coalescer.submit("room:2", () -> {
+            published.add("room 2");
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(published).containsExactlyInAnyOrder("room 1", "room 2");
+    }
+
+    @Test
+    void zeroWindowPublishesRightAway() {
+        BroadcastCoalescer immediate = new BroadcastCoalescer(0, MAX_DELAY_MS);
+        try {
+            immediate.submit("room", () -> published.add("now"));
+
+            assertThat(published).containsExactly("now");
+        } finally {
+            immediate.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.vsarthi.backend.repository.SongRepository;
+import org.vsarthi.backend.repository.VoteRepository;
+
+class InMemoryVoteLedgerTest {
+
+    private VoteLedger voteLedger;
+
+    @BeforeEach
+    void setUp() {
+        SongRepository songRepository = mock(SongRepository.class);
+        VoteRepository voteRepository = mock(VoteRepository.class);
+        when(songRepository.findRoomIdById(1L)).thenReturn(Optional.of(7L));
+        when(songRepository.findRoomIdById(2L)).thenReturn(Optional.of(8L));
+        when(voteRepository.findUserIdsBySongId(1L)).thenReturn(List.of(100L, 101L));
+        voteLedger = new InMemoryVoteLedger(songRepository, voteRepository);
+    }
+
+    @Test
+    void rebuildsFromStoredVotesAndRejectsDuplicates() {
+        assertThat(voteLedger.getRoomId(1L)).isEqualTo(7L);
+        assertThat(voteLedger.record(1L, 100L)).isEqualTo(-1);
+        assertThat(voteLedger.record(1L, 102L)).isEqualTo(3);
+        assertThat(voteLedger.getCount(1L)).contains(3);
+    }
+
+    @Test
+    void concurrentVotesAreCountedOnceAndWrittenOnce() throws Exception {
+        int threads = 16;
+        int users = 5000;
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    // Every thread tries every user, only one attempt per user may succeed
+                    for (long userId = 1000; userId < 1000 + users; userId++) {
+                        if (voteLedger.record(1L, userId) > 0) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accepted.get()).isEqualTo(users);
+        assertThat(voteLedger.getCount(1L)).contains(users + 2);
+
+        List<VoteLedger.PendingVote> written = new ArrayList<>();
+        while (voteLedger.flush(1000, written::addAll) > 0) {
+            // Drain all batches
+        }
+        assertThat(written).hasSize(users).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void resetDropsPendingVotes() {
+        voteLedger.record(1L, 200L);
+        voteLedger.reset(1L);
+
+        assertThat(voteLedger.getCount(1L)).contains(0);
+        assertThat(voteLedger.flush(10, batch -> { })).isZero();
+        assertThat(voteLedger.record(1L, 100L)).isEqualTo(1);
+    }
+
+    @Test
+    void resetIsUndoneWhenTheTransactionRollsBack() {
+        voteLedger.record(1L, 200L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            voteLedger.reset(1L);
+            // Held back while the transaction deletes the stored votes, but not cleared before it commits
+            assertThat(voteLedger.flush(10, batch -> { })).isZero();
+            assertThat(voteLedger.getCount(1L)).contains(3);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(voteLedger.getCount(1L)).contains(3);
+        List<VoteLedger.PendingVote> written = new ArrayList<>();
+        voteLedger.flush(10, written::addAll);
+        assertThat(written).containsExactly(new VoteLedger.PendingVote(1L, 200L));
+    }
+
+    @Test
+    void roomsAreCountedAndForgottenOnTheirOwn() {
+        voteLedger.record(1L, 200L);
+        voteLedger.record(2L, 200L);
+
+        assertThat(voteLedger.getRoomCounts(7L)).containsExactly(entry(1L, 3));
+        assertThat(voteLedger.getRoomCounts(8L)).containsExactly(entry(2L, 1));
+
+        voteLedger.forgetRoom(7L);
+
+        assertThat(voteLedger.getRoomCounts(7L)).isEmpty();
+        assertThat(voteLedger.getCount(1L)).isEmpty();
+        List<VoteLedger.PendingVote> written = new ArrayList<>();
+        voteLedger.flush(10, written::addAll);
+        assertThat(written).containsExactly(new VoteLedger.PendingVote(2L, 200L));
+    }
+}
@@ -0,0 +1,45 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.vsarthi.backend.service.RefreshTokenStore.StoredRefreshToken;
+
+@DataJpaTest
+@Import(JpaRefreshTokenStore.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class JpaRefreshTokenStoreTest {
+
+    @Autowired
+    private JpaRefreshTokenStore store;
+
+    @Test
+    void onlyTheFirstMarkSeesTheTokenUnused() {
+        store.save("a", new StoredRefreshToken(1L, "family", System.currentTimeMillis() + 60_000, 0));
+
+        assertThat(store.markUsed("a", 100).orElseThrow().isUsed()).isFalse();
+        assertThat(store.markUsed("a", 200).orElseThrow().usedAt()).isEqualTo(100);
+        assertThat(store.markUsed("missing", 300)).isEmpty();
+    }
+
+    @Test
+    void deletesFamilyAndExpiredTokens() {
+        long now = System.currentTimeMillis();
+        store.save("a", new StoredRefreshToken(1L, "family", now + 60_000, 0));
+        store.save("b", new StoredRefreshToken(1L, "family", now + 60_000, 0));
+        store.save("c", new StoredRefreshToken(1L, "other", now + 60_000, 0));
+        store.save("d", new StoredRefreshToken(1L, "expired", now - 1, 0));
+
+        store.deleteFamily("family");
+        store.deleteExpired();
+
+        assertThat(store.find("a")).isEmpty();
+        assertThat(store.find("b")).isEmpty();
+        assertThat(store.find("c")).isPresent();
+        assertThat(store.find("d")).isEmpty();
+    }
+}
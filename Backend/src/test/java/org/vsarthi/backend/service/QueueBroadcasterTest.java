@@ -0,0 +1,167 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.vsarthi.backend.DTO.QueueChange;
+import org.vsarthi.backend.DTO.QueueDelta;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.repository.SongRepository;
+
+class QueueBroadcasterTest {
+
+    private static final Long ROOM_ID = 1L;
+
+    private final List<QueueDelta> sent = new ArrayList<>();
+    private RoomQueueManager roomQueueManager;
+    private QueueBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        SongRepository songRepository = mock(SongRepository.class);
+        when(songRepository.findByRoomIdOrderByUpvotesDesc(ROOM_ID)).thenReturn(new ArrayList<>());
+        SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+        doAnswer(invocation -> sent.add(invocation.getArgument(1)))
+                .when(messagingTemplate).convertAndSend(eq("/topic/room/1/songs"), any(Object.class));
+
+        roomQueueManager = new RoomQueueManager(songRepository, mock(VoteLedger.class));
+        broadcaster = new QueueBroadcaster(roomQueueManager, messagingTemplate, new BroadcastCoalescer(0, 0));
+        ReflectionTestUtils.setField(broadcaster, "broadcastMode", "delta");
+    }
+
+    @Test
+    void singleVoteProducesSingleChange() {
+        RoomQueue queue = roomQueueManager.get(ROOM_ID);
+        for (long id = 1; id <= 300; id++) {
+            queue.upsert(song(id, 0));
+        }
+        broadcaster.publish(ROOM_ID);
+        sent.clear();
+
+        queue.updateVotes(250L, 1);
+        broadcaster.publish(ROOM_ID);
+
+        assertThat(sent).hasSize(1);
+        assertThat(sent.getFirst().getChanges()).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getType()).isEqualTo(QueueChange.Type.MOVED);
+                    assertThat(change.getSongId()).isEqualTo(250L);
+                    assertThat(change.getPosition()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    void replayingDeltasReproducesTheQueue() {
+        RoomQueue queue = roomQueueManager.get(ROOM_ID);
+        ClientQueue client = new ClientQueue();
+        Random random = new Random(42);
+        long nextId = 1;
+
+        for (int step = 0; step < 2000; step++) {
+            List<Song> songs = queue.snapshot();
+            int action = random.nextInt(10);
+            if (songs.size() < 3 || action == 0) {
+                queue.upsert(song(nextId++, 0));
+            } else {
+                Song target = songs.get(random.nextInt(songs.size()));
+                if (action == 1) {
+                    queue.remove(target.getId());
+                } else if (action == 2) {
+                    queue.getCurrent().ifPresent(current -> {
+                        current.setCurrent(false);
+                        queue.requeue(current, random.nextBoolean());
+                    });
+                    target.setCurrent(true);
+                    queue.setCurrent(target);
+                } else {
+                    queue.updateVotes(target.getId(), target.getUpvotes() + 1);
+                }
+            }
+
+            broadcaster.publish(ROOM_ID);
+            sent.forEach(client::apply);
+            sent.clear();
+
+            List<Song> expected = queue.snapshot();
+            assertThat(client.currentId).isEqualTo(!expected.isEmpty() && expected.getFirst().isCurrent() ? expected.getFirst().getId() : null);
+            assertThat(client.order).isEqualTo(expected.stream().filter(song -> !song.isCurrent()).map(Song::getId).toList());
+            expected.forEach(song -> assertThat(client.upvotes.get(song.getId())).isEqualTo(song.getUpvotes()));
+        }
+    }
+
+    @Test
+    void publishedSnapshotDoesNotChangeWithTheQueue() {
+        RoomQueue queue = roomQueueManager.get(ROOM_ID);
+        queue.upsert(song(1, 0));
+        queue.upsert(song(2, 0));
+        List<Song> published = queue.snapshot();
+        Song voted = queue.findCopy(2L).orElseThrow();
+
+        queue.updateVotes(2L, 5);
+
+        assertThat(voted.getUpvotes()).isZero();
+
+        assertThat(published).extracting(Song::getId).containsExactly(1L, 2L);
+        assertThat(published).extracting(Song::getUpvotes).containsExactly(0, 0);
+        assertThat(published).extracting(Song::getQueuePosition).containsExactly(1, 2);
+    }
+
+    private static Song song(long id, int upvotes) {
+        Song song = new Song();
+        song.setId(id);
+        song.setTitle("Song " + id);
+        song.setUpvotes(upvotes);
+        return song;
+    }
+
+    private static final class ClientQueue {
+        private long version;
+        private Long currentId;
+        private final List<Long> order = new ArrayList<>();
+        private final Map<Long, Integer> upvotes = new HashMap<>();
+
+        void apply(QueueDelta delta) {
+            assertThat(delta.getVersion()).isEqualTo(version + 1);
+            version = delta.getVersion();
+            for (QueueChange change : delta.getChanges()) {
+                switch (change.getType()) {
+                    case REMOVED -> {
+                        order.remove(change.getSongId());
+                        upvotes.remove(change.getSongId());
+                        if (change.getSongId().equals(currentId)) {
+                            currentId = null;
+                        }
+                    }
+                    case NOW_PLAYING -> {
+                        currentId = change.getSongId();
+                        if (currentId != null) {
+                            order.remove(currentId);
+                            upvotes.put(currentId, change.getUpvotes());
+                        }
+                    }
+                    default -> {
+                        upvotes.put(change.getSongId(), change.getUpvotes());
+                        if (change.getPosition() != null) {
+                            order.remove(change.getSongId());
+                            order.add(change.getPosition() - 1, change.getSongId());
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
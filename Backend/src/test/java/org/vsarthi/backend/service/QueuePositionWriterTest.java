@@ -0,0 +1,87 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vsarthi.backend.model.Song;
+
+class QueuePositionWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private QueuePositionWriter writer;
+    private RoomQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        writer = new QueuePositionWriter(mock(RoomQueueManager.class), jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        queue = new RoomQueue(1L, List.of(song(1), song(2), song(3)));
+        queue.snapshot();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writtenPositionsAreNotWrittenAgain() {
+        writer.flush(queue);
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), eq(3), any(ParameterizedPreparedStatementSetter.class));
+
+        assertThat(queue.drainDirtyPositions()).isEmpty();
+        queue.snapshot();
+        assertThat(queue.drainDirtyPositions()).isEmpty();
+    }
+
+    @Test
+    void failedBatchIsWrittenWithTheNextFlush() {
+        failBatch(() -> { });
+
+        writer.flush(queue);
+
+        assertThat(queue.drainDirtyPositions()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 1, 2L, 2, 3L, 3));
+    }
+
+    @Test
+    void positionsComputedDuringAFailedBatchWin() {
+        // The first song goes to the back while its old position is being written
+        failBatch(() -> {
+            queue.requeue(song(1), false);
+            queue.snapshot();
+        });
+
+        writer.flush(queue);
+
+        assertThat(queue.drainDirtyPositions()).containsExactlyInAnyOrderEntriesOf(Map.of(2L, 1, 3L, 2, 1L, 3));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void failBatch(Runnable meanwhile) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    meanwhile.run();
+                    throw new QueryTimeoutException("database down");
+                });
+    }
+
+    private static Song song(long id) {
+        Song song = new Song();
+        song.setId(id);
+        return song;
+    }
+}
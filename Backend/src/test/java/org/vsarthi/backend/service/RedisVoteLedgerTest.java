@@ -0,0 +1,144 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.vsarthi.backend.config.RedisConfig;
+import org.vsarthi.backend.repository.SongRepository;
+import org.vsarthi.backend.repository.VoteRepository;
+
+import com.github.fppt.jedismock.RedisServer;
+
+class RedisVoteLedgerTest {
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private SongRepository songRepository;
+    private VoteRepository voteRepository;
+    private RedisVoteLedger voteLedger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+
+        songRepository = mock(SongRepository.class);
+        voteRepository = mock(VoteRepository.class);
+        when(songRepository.findRoomIdById(1L)).thenReturn(Optional.of(7L));
+        when(songRepository.findRoomIdById(2L)).thenReturn(Optional.of(7L));
+        when(voteRepository.findUserIdsBySongId(1L)).thenReturn(List.of(100L, 101L));
+        when(voteRepository.findUserIdsBySongId(2L)).thenReturn(List.of());
+        voteLedger = newLedger();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    private RedisVoteLedger newLedger() {
+        return new RedisVoteLedger(songRepository, voteRepository, new RedisConfig().redisTemplate(connectionFactory));
+    }
+
+    @Test
+    void seedsFromStoredVotesAndRejectsDuplicates() {
+        assertThat(voteLedger.getRoomId(1L)).isEqualTo(7L);
+        assertThat(voteLedger.record(1L, 100L)).isEqualTo(-1);
+        assertThat(voteLedger.record(1L, 102L)).isEqualTo(3);
+        assertThat(voteLedger.getCount(1L)).contains(3);
+
+        // A second node shares the state instead of seeding it again
+        RedisVoteLedger otherNode = newLedger();
+        assertThat(otherNode.record(1L, 102L)).isEqualTo(-1);
+        assertThat(otherNode.record(1L, 103L)).isEqualTo(4);
+    }
+
+    @Test
+    void roomCountsComeFromTheRanking() {
+        voteLedger.getRoomId(1L);
+        voteLedger.getRoomId(2L);
+        voteLedger.record(2L, 100L);
+
+        assertThat(voteLedger.getRoomCounts(7L)).containsEntry(1L, 2).containsEntry(2L, 1);
+        voteLedger.record(2L, 101L);
+        assertThat(voteLedger.getRoomCounts(7L)).containsEntry(1L, 2).containsEntry(2L, 2);
+    }
+
+    @Test
+    void concurrentVotesAreCountedOnceAndWrittenOnce() throws Exception {
+        int threads = 8;
+        int users = 300;
+        AtomicInteger accepted = new AtomicInteger();
+        voteLedger.getRoomId(1L);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                RedisVoteLedger node = newLedger();
+                futures.add(executor.submit(() -> {
+                    for (long userId = 1000; userId < 1000 + users; userId++) {
+                        if (node.record(1L, userId) > 0) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accepted.get()).isEqualTo(users);
+        assertThat(voteLedger.getCount(1L)).contains(users + 2);
+
+        List<VoteLedger.PendingVote> written = new ArrayList<>();
+        while (voteLedger.flush(100, written::addAll) > 0) {
+            // Drain all batches
+        }
+        assertThat(written).hasSize(users).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void resetDropsPendingVotes() {
+        voteLedger.record(1L, 200L);
+        voteLedger.reset(1L);
+
+        assertThat(voteLedger.getCount(1L)).contains(0);
+        assertThat(voteLedger.flush(10, batch -> { })).isZero();
+        assertThat(voteLedger.record(1L, 100L)).isEqualTo(1);
+    }
+
+    @Test
+    void failedWriteKeepsVotes() {
+        voteLedger.record(1L, 200L);
+
+        assertThatThrownBy(() -> voteLedger.flush(10, batch -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        List<VoteLedger.PendingVote> written = new ArrayList<>();
+        voteLedger.flush(10, written::addAll);
+        assertThat(written).containsExactly(new VoteLedger.PendingVote(1L, 200L));
+    }
+}
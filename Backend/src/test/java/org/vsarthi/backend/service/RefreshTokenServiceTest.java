@@ -0,0 +1,88 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.vsarthi.backend.config.RedisConfig;
+
+import com.github.fppt.jedismock.RedisServer;
+
+class RefreshTokenServiceTest {
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private TokenVersions tokenVersions;
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        store = new RedisRefreshTokenStore(new RedisConfig().redisTemplate(connectionFactory));
+        tokenVersions = new TokenVersions();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void rotationReplacesTheToken() {
+        RefreshTokenService service = new RefreshTokenService(store, tokenVersions, 60_000, 0);
+        String token = service.issue(1L);
+        assertThat(service.validate(token)).isEqualTo(1L);
+
+        RefreshTokenService.Rotation rotation = service.rotate(token);
+
+        assertThat(rotation.userId()).isEqualTo(1L);
+        assertThat(service.validate(rotation.refreshToken())).isEqualTo(1L);
+        assertThatThrownBy(() -> service.validate(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reuseRevokesTheFamilyAndAccessTokens() throws InterruptedException {
+        RefreshTokenService service = new RefreshTokenService(store, tokenVersions, 60_000, 0);
+        String stolen = service.issue(1L);
+        String other = service.issue(1L);
+        String rotated = service.rotate(stolen).refreshToken();
+        Thread.sleep(5);
+
+        assertThatThrownBy(() -> service.rotate(stolen)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> service.validate(rotated)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(tokenVersions.current(1L)).isEqualTo(1);
+        // Other logins keep their tokens
+        assertThat(service.validate(other)).isEqualTo(1L);
+    }
+
+    @Test
+    void concurrentRefreshWithinGraceIsNotReuse() {
+        RefreshTokenService service = new RefreshTokenService(store, tokenVersions, 60_000, 10_000);
+        String token = service.issue(1L);
+        String rotated = service.rotate(token).refreshToken();
+
+        assertThatThrownBy(() -> service.rotate(token)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(service.validate(token)).isEqualTo(1L);
+        assertThat(service.validate(rotated)).isEqualTo(1L);
+        assertThat(tokenVersions.current(1L)).isZero();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        RefreshTokenService service = new RefreshTokenService(store, tokenVersions, -1, 0);
+        String token = service.issue(1L);
+
+        assertThatThrownBy(() -> service.validate(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,122 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RoomLocksTest {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 25;
+
+    @Test
+    void operationsOnTheSameRoomAreMutuallyExclusive() throws Exception {
+        RoomLocks roomLocks = new RoomLocks(64, new RoomCommandExecutor());
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        roomLocks.withLock(1L, () -> {
+                            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            sleep(1);
+                            inside.decrementAndGet();
+                            return null;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInside.get()).isEqualTo(1);
+    }
+
+    @Test
+    void holderOfOneRoomDoesNotBlockAnotherRoom() throws Exception {
+        RoomLocks roomLocks = new RoomLocks(64, new RoomCommandExecutor());
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> holder = executor.submit(() -> roomLocks.withLock(1L, () -> {
+                held.countDown();
+                await(release);
+                return null;
+            }));
+            assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Times out if room 2 waits for room 1
+            Future<String> other = executor.submit(() -> roomLocks.withLock(2L, () -> "room 2"));
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("room 2");
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void actorModeRunsTheWorkInTheRoomsMailbox() throws Exception {
+        RoomCommandExecutor roomCommands = new RoomCommandExecutor();
+        ReflectionTestUtils.setField(roomCommands, "actorMode", true);
+        RoomLocks roomLocks = new RoomLocks(64, roomCommands);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The command takes the room again from inside its mailbox, which must not wait for itself
+            CompletableFuture<String> command = roomCommands.submit(1L, () -> {
+                await(release);
+                return roomLocks.withLock(1L, () -> "command");
+            });
+            Future<String> other = executor.submit(() -> roomLocks.withLock(1L, () -> command.isDone() ? "after" : "during"));
+
+            release.countDown();
+            assertThat(command.get(5, TimeUnit.SECONDS)).isEqualTo("command");
+            assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("after");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            roomCommands.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.vsarthi.backend.model.Song;
+
+class RoomQueueTest {
+
+    @Test
+    void nextSongChangesOnlyWhenItIsMadeCurrent() {
+        RoomQueue queue = new RoomQueue(1L, List.of(song(1, 2), song(2, 1)));
+
+        Song next = queue.peekNext().orElseThrow();
+        next.setCurrent(true);
+        next.setQueuePosition(null);
+
+        // A change that is never handed back, as when its transaction rolls back
+        assertThat(queue.getCurrent()).isEmpty();
+        assertThat(queue.snapshot()).extracting(Song::getId).containsExactly(1L, 2L);
+        assertThat(queue.snapshot()).extracting(Song::isCurrent).containsOnly(false);
+
+        queue.setCurrent(next);
+
+        assertThat(queue.getCurrent()).contains(next);
+        assertThat(queue.peekNext()).map(Song::getId).contains(2L);
+    }
+
+    @Test
+    void equallyVotedSongsKeepTheOrderTheyEnteredIn() {
+        RoomQueue queue = new RoomQueue(1L, List.of(song(1, 0), song(2, 0), song(3, 0)));
+
+        queue.requeue(song(1, 0), false);
+        assertThat(queue.snapshot()).extracting(Song::getId).containsExactly(2L, 3L, 1L);
+
+        queue.requeue(song(3, 0), true);
+        assertThat(queue.snapshot()).extracting(Song::getId).containsExactly(3L, 2L, 1L);
+
+        // A vote moves a song up, and songs reaching the same count stay in their order
+        queue.updateVotes(1L, 1);
+        queue.updateVotes(2L, 1);
+        assertThat(queue.snapshot()).extracting(Song::getId).containsExactly(2L, 1L, 3L);
+    }
+
+    private static Song song(long id, int upvotes) {
+        Song song = new Song();
+        song.setId(id);
+        song.setUpvotes(upvotes);
+        return song;
+    }
+}
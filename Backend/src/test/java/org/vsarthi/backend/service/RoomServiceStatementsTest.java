@@ -0,0 +1,219 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.context.TestPropertySource;
+import org.vsarthi.backend.DTO.BulkImportResult;
+import org.vsarthi.backend.DTO.VideoMetadata;
+import org.vsarthi.backend.model.Room;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.Users;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the statements the room flows send to the database for a room with 500 songs and 20k votes.
+ */
+@DataJpaTest
+@Import({RoomService.class, VotingService.class, InMemoryVoteLedger.class, RoomQueueManager.class, RoomMembers.class,
+        RoomLocks.class, RoomCommandExecutor.class, QueueBroadcaster.class, BroadcastCoalescer.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "hive.broadcast.coalesce.window-ms=0"
+})
+class RoomServiceStatementsTest {
+
+    private static final int SONGS = 500;
+    private static final int VOTERS = 40;
+    // Rows inserted directly get ids far above the ones the sequences hand out
+    private static final long SEEDED_IDS = 1_000_000;
+
+    @MockBean
+    private YouTubeService youTubeService;
+    @MockBean
+    private SimpMessageSendingOperations messagingTemplate;
+    @MockBean
+    private QueuePositionWriter queuePositionWriter;
+
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RoomMembers roomMembers;
+
+    private Users creator;
+    private Long roomId;
+
+    @BeforeEach
+    void setUp() {
+        creator = user("creator");
+        Room room = new Room("Room", creator);
+        entityManager.persist(room);
+        roomId = room.getId();
+        entityManager.flush();
+
+        List<Object[]> songs = new ArrayList<>();
+        for (int i = 0; i < SONGS; i++) {
+            songs.add(new Object[]{SEEDED_IDS + i, "https://youtu.be/" + i, String.valueOf(i), "Song " + i, VOTERS, roomId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO song (id, youtube_link, video_id, title, upvotes, is_current, room_id) VALUES (?, ?, ?, ?, ?, false, ?)", songs);
+
+        List<Long> songIds = jdbcTemplate.queryForList("SELECT id FROM song WHERE room_id = ?", Long.class, roomId);
+        List<Object[]> votes = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            Long userId = user("voter" + i).getId();
+            for (Long songId : songIds) {
+                votes.add(new Object[]{SEEDED_IDS + votes.size(), userId, songId});
+            }
+        }
+        entityManager.flush();
+        jdbcTemplate.batchUpdate("INSERT INTO user_votes (id, user_id, song_id, is_upvote) VALUES (?, ?, ?, true)", votes);
+        jdbcTemplate.update("INSERT INTO room_users (room_id, user_id) VALUES (?, ?)", roomId, creator.getId());
+        entityManager.clear();
+    }
+
+    @Test
+    void closeRoomUsesBulkStatements() {
+        long statements = countStatements(() -> roomService.closeRoom(roomId, creator));
+
+        // Loading the room for the permission check plus one statement per bulk delete
+        assertThat(statements).isLessThanOrEqualTo(10);
+        assertThat(count("SELECT COUNT(*) FROM user_votes")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM song")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM room_users")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM room")).isZero();
+    }
+
+    @Test
+    void membersWhoJoinedOnAnotherNodeAreLookedUp() {
+        assertThat(roomMembers.isMember(roomId, creator.getId())).isTrue();
+
+        // Joined after this node loaded the members
+        Users joiner = user("joiner");
+        Users stranger = user("stranger");
+        entityManager.flush();
+        jdbcTemplate.update("INSERT INTO room_users (room_id, user_id) VALUES (?, ?)", roomId, joiner.getId());
+
+        assertThat(roomMembers.isMember(roomId, joiner.getId())).isTrue();
+        assertThat(roomMembers.isMember(roomId, stranger.getId())).isFalse();
+    }
+
+    @Test
+    void creatorLeavingResetsVotesWithBulkStatements() {
+        long statements = countStatements(() -> roomService.leaveRoom(roomId, "session", creator.getEmail()));
+
+        assertThat(statements).isLessThanOrEqualTo(10);
+        assertThat(count("SELECT COUNT(*) FROM user_votes")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM song WHERE upvotes > 0")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM song")).isEqualTo(SONGS);
+    }
+
+    @Test
+    void bulkImportInsertsValidSongsInOneBatch() throws Exception {
+        when(youTubeService.extractVideoId(anyString())).thenAnswer(invocation -> {
+            String link = invocation.getArgument(0);
+            if (!link.startsWith("https://youtu.be/")) {
+                throw new IllegalArgumentException("Invalid YouTube link");
+            }
+            return link.substring("https://youtu.be/".length());
+        });
+        when(youTubeService.getVideoMetadata(anyCollection())).thenAnswer(invocation -> {
+            Map<String, VideoMetadata> videos = new LinkedHashMap<>();
+            for (String videoId : invocation.<Collection<String>>getArgument(0)) {
+                videos.put(videoId, new VideoMetadata(videoId, true, "Title " + videoId, true, 200L, null));
+            }
+            return videos;
+        });
+        List<String> links = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            links.add("https://youtu.be/new" + i);
+        }
+        links.add("https://youtu.be/0");
+        links.add("not a link");
+
+        AtomicReference<BulkImportResult<Song>> result = new AtomicReference<>();
+        long statements = countStatements(() -> {
+            try {
+                result.set(roomService.addSongsToRoom(roomId, links, creator));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThat(result.get().added()).hasSize(200);
+        assertThat(result.get().rejected()).containsOnlyKeys("https://youtu.be/0", "not a link");
+        assertThat(count("SELECT COUNT(*) FROM song")).isEqualTo(SONGS + 200);
+        // Statements sent through Hibernate; the inserts are one JDBC batch
+        assertThat(statements).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void videoAlreadyInTheRoomIsRejectedWhateverTheLink() throws Exception {
+        when(youTubeService.extractVideoId(anyString())).thenReturn("7");
+        when(youTubeService.getVideoMetadata(anyString())).thenReturn(new VideoMetadata("7", true, "Song 7", true, 200L, null));
+
+        assertThatThrownBy(() -> roomService.addSongToRoom(roomId, "https://m.youtube.com/watch?v=7&t=10", creator))
+                .hasMessage("Song with the same YouTube link already exists in this room");
+    }
+
+    @Test
+    void switchingToAnEarlierSongClearsTheCurrentOneFirst() {
+        jdbcTemplate.update("UPDATE song SET is_current = true WHERE id = ?", SEEDED_IDS + 10);
+        // With the queue already resident nothing queries, and flushes, between the two changes
+        roomService.getSongsInRoom(roomId);
+
+        // Updates are flushed in id order, which would set the new current song before clearing the old one
+        roomService.updateCurrentSong(roomId, SEEDED_IDS + 1, creator);
+        entityManager.flush();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM song WHERE is_current", Long.class)).containsExactly(SEEDED_IDS + 1);
+    }
+
+    private long countStatements(Runnable operation) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        operation.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private Users user(String name) {
+        Users user = new Users();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        entityManager.persist(user);
+        return user;
+    }
+}
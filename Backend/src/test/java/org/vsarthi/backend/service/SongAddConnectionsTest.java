@@ -0,0 +1,125 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vsarthi.backend.DTO.VideoMetadata;
+import org.vsarthi.backend.model.Room;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.Users;
+import org.vsarthi.backend.repository.RoomRepository;
+import org.vsarthi.backend.repository.SongRepository;
+import org.vsarthi.backend.repository.UserRepository;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Adds songs while a deliberately slow YouTube stand-in keeps every lookup waiting, and checks that
+ * none of the waiting requests holds a pooled connection.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RoomService.class, VotingService.class, InMemoryVoteLedger.class, RoomQueueManager.class, RoomMembers.class,
+        RoomLocks.class, RoomCommandExecutor.class, QueueBroadcaster.class, BroadcastCoalescer.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:song-add-connections;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "hive.broadcast.coalesce.window-ms=0"
+})
+class SongAddConnectionsTest {
+
+    private static final int REQUESTS = 12;
+
+    @MockBean
+    private YouTubeService youTubeService;
+    @MockBean
+    private SimpMessageSendingOperations messagingTemplate;
+    @MockBean
+    private QueuePositionWriter queuePositionWriter;
+
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private SongRepository songRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void slowLookupsDoNotHoldConnections() throws Exception {
+        Users creator = new Users();
+        creator.setUsername("creator");
+        creator.setEmail("creator@example.com");
+        creator = userRepository.save(creator);
+        Room room = new Room("Room", creator);
+        room.addUser(creator);
+        Long roomId = roomRepository.save(room).getId();
+
+        CountDownLatch lookupsWaiting = new CountDownLatch(REQUESTS);
+        CountDownLatch youTubeAnswers = new CountDownLatch(1);
+        when(youTubeService.extractVideoId(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(youTubeService.getVideoMetadata(anyString())).thenAnswer(invocation -> {
+            lookupsWaiting.countDown();
+            youTubeAnswers.await();
+            String videoId = invocation.getArgument(0);
+            return new VideoMetadata(videoId, true, "Title " + videoId, true, 200L, null);
+        });
+
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        Users addedBy = creator;
+        List<CompletableFuture<Song>> added = new ArrayList<>();
+        try (ExecutorService requests = Executors.newFixedThreadPool(REQUESTS)) {
+            for (int i = 0; i < REQUESTS; i++) {
+                String link = "video" + i;
+                added.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return roomService.addSongToRoom(roomId, link, addedBy);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, requests));
+            }
+
+            try {
+                // Three times as many requests as connections are waiting on YouTube at once
+                assertThat(lookupsWaiting.await(10, TimeUnit.SECONDS)).isTrue();
+                assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+                assertThat(pool.getHikariPoolMXBean().getThreadsAwaitingConnection()).isZero();
+            } finally {
+                youTubeAnswers.countDown();
+            }
+            CompletableFuture.allOf(added.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(songRepository.findByRoomId(roomId)).hasSize(REQUESTS);
+    }
+}
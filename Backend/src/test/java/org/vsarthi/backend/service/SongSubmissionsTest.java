@@ -0,0 +1,83 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.vsarthi.backend.DTO.SongSubmission;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.Users;
+
+class SongSubmissionsTest {
+
+    private static final String LINK = "https://youtu.be/abc";
+
+    private final RoomService roomService = mock(RoomService.class);
+    private final YouTubeService youTubeService = mock(YouTubeService.class);
+    private final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+    private final Users user = new Users();
+    private SongSubmissions songSubmissions;
+
+    @BeforeEach
+    void setUp() {
+        when(youTubeService.extractVideoId(LINK)).thenReturn("abc");
+        when(youTubeService.extractVideoId("not a link")).thenThrow(new IllegalArgumentException("Invalid YouTube link"));
+        songSubmissions = new SongSubmissions(roomService, youTubeService, messagingTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        songSubmissions.shutdown();
+    }
+
+    @Test
+    void submissionReturnsBeforeTheSongIsAdded() throws Exception {
+        CountDownLatch youTubeAnswers = new CountDownLatch(1);
+        Song song = new Song();
+        song.setYoutubeLink(LINK);
+        when(roomService.addSongToRoom(1L, LINK, user)).thenAnswer(invocation -> {
+            youTubeAnswers.await();
+            return song;
+        });
+
+        SongSubmission pending = songSubmissions.submit(1L, LINK, user, "user@example.com");
+
+        assertThat(pending.getPendingId()).isNotNull();
+        verify(messagingTemplate, never()).convertAndSend(any(String.class), any(Object.class));
+
+        youTubeAnswers.countDown();
+        verify(messagingTemplate, timeout(2000)).convertAndSend("/topic/room/1/submissions", SongSubmission.added(pending.getPendingId(), song));
+        verify(roomService).publishQueue(1L);
+    }
+
+    @Test
+    void failureGoesToTheSubmitter() throws Exception {
+        when(roomService.addSongToRoom(1L, LINK, user)).thenThrow(new RuntimeException("Video not found"));
+
+        SongSubmission pending = songSubmissions.submit(1L, LINK, user, "user@example.com");
+
+        verify(messagingTemplate, timeout(2000)).convertAndSendToUser(eq("user@example.com"), eq("/queue/submissions"),
+                eq(SongSubmission.failed(pending.getPendingId(), LINK, "Video not found")));
+    }
+
+    @Test
+    void invalidLinkIsRejectedRightAway() {
+        assertThatThrownBy(() -> songSubmissions.submit(1L, "not a link", user, "user@example.com"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(roomService, messagingTemplate);
+    }
+}
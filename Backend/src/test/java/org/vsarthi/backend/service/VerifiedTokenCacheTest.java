@@ -0,0 +1,126 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.vsarthi.backend.DTO.UserDetailsServiceImpl;
+import org.vsarthi.backend.model.AuthUser;
+import org.vsarthi.backend.model.UserPrincipal;
+import org.vsarthi.backend.model.Users;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+class VerifiedTokenCacheTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtService jwtService;
+    private UserDetailsServiceImpl userDetailsService;
+    private TokenVersions tokenVersions;
+    private VerifiedTokenCache cache;
+    private Users user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 60_000L);
+        jwtService.init();
+
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByEmail(EMAIL)).thenReturn(new UserPrincipal(new AuthUser(1L, EMAIL, "user", "hash")));
+        tokenVersions = new TokenVersions();
+        cache = new VerifiedTokenCache(jwtService, userDetailsService, tokenVersions, 100, 300_000);
+
+        user = new Users();
+        user.setId(1L);
+        user.setEmail(EMAIL);
+        user.setUsername("user");
+    }
+
+    @Test
+    void principalComesFromTheTokenClaims() {
+        UserPrincipal principal = cache.resolve(jwtService.generateAccessToken(user, 0));
+
+        assertThat(principal.getUser().getId()).isEqualTo(1L);
+        assertThat(principal.getUser().getUsername()).isEqualTo("user");
+        assertThat(principal.getUsername()).isEqualTo(EMAIL);
+        verify(userDetailsService, never()).loadUserByEmail(any());
+    }
+
+    @Test
+    void revokedTokenIsReportedAsExpired() {
+        String token = jwtService.generateAccessToken(user, tokenVersions.current(1L));
+        cache.resolve(token);
+
+        tokenVersions.revoke(1L);
+
+        assertThatThrownBy(() -> cache.resolve(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(cache.resolve(jwtService.generateAccessToken(user, tokenVersions.current(1L))).getEmail()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    void tokenWithoutIdentityClaimsIsResolvedWithoutLoadingTheUserAgain() {
+        String token = Jwts.builder()
+                .subject(EMAIL)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(cache.resolve(token).getEmail()).isEqualTo(EMAIL);
+        assertThat(cache.resolve(token).getEmail()).isEqualTo(EMAIL);
+        verify(userDetailsService, times(1)).loadUserByEmail(EMAIL);
+
+        cache.evictUser(EMAIL);
+        cache.resolve(token);
+        verify(userDetailsService, times(2)).loadUserByEmail(EMAIL);
+    }
+
+    @Test
+    void entryExpiresWithItsToken() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 1_000L);
+        String token = jwtService.generateAccessToken(user, 0);
+        cache.resolve(token);
+
+        Thread.sleep(1_100);
+
+        assertThatThrownBy(() -> cache.resolve(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtService.generateAccessToken(user, 0);
+
+        assertThatThrownBy(() -> cache.resolve(token.substring(0, token.length() - 2) + "xx")).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void staysBounded() {
+        for (long id = 0; id < 250; id++) {
+            Users other = new Users();
+            other.setEmail(EMAIL);
+            other.setId(id);
+            // Distinct expirations keep tokens issued within the same second distinct
+            ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 60_000L + id * 1000);
+            cache.resolve(jwtService.generateAccessToken(other, 0));
+        }
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(cache, "entries")).hasSizeLessThanOrEqualTo(100);
+    }
+}
@@ -0,0 +1,82 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.vsarthi.backend.DTO.VideoMetadata;
+import org.vsarthi.backend.config.RedisConfig;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+
+class VideoMetadataCacheTest {
+
+    private static final VideoMetadata VIDEO = new VideoMetadata("abc", true, "Title", true, 253L, "https://i.ytimg.com/vi/abc/hqdefault.jpg");
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void missingVideosExpireSoonerThanPlayableOnes() throws InterruptedException {
+        VideoMetadataCache cache = new VideoMetadataCache(unusedRedis(), new ObjectMapper(), 100, 60_000, 50, false);
+        cache.put(VIDEO);
+        cache.put(VideoMetadata.notFound("gone"));
+
+        assertThat(cache.get("gone")).contains(VideoMetadata.notFound("gone"));
+        Thread.sleep(60);
+
+        assertThat(cache.get("gone")).isEmpty();
+        assertThat(cache.get("abc")).contains(VIDEO);
+    }
+
+    @Test
+    void redisTierIsSharedBetweenNodes() {
+        VideoMetadataCache node = new VideoMetadataCache(redisTemplate, new ObjectMapper(), 100, 60_000, 1_000, true);
+        VideoMetadataCache otherNode = new VideoMetadataCache(redisTemplate, new ObjectMapper(), 100, 60_000, 1_000, true);
+
+        node.put(VIDEO);
+
+        assertThat(otherNode.get("abc")).contains(VIDEO);
+        assertThat(redisTemplate.getExpire("youtube:video:abc")).isPositive();
+    }
+
+    @Test
+    void staysBounded() {
+        VideoMetadataCache cache = new VideoMetadataCache(unusedRedis(), new ObjectMapper(), 100, 60_000, 1_000, false);
+        for (int i = 0; i < 250; i++) {
+            cache.put(VideoMetadata.notFound("video" + i));
+        }
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(cache, "entries")).hasSizeLessThanOrEqualTo(100);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisTemplate<String, Object> unusedRedis() {
+        return mock(RedisTemplate.class);
+    }
+}
@@ -0,0 +1,95 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.vsarthi.backend.model.Room;
+import org.vsarthi.backend.model.Song;
+import org.vsarthi.backend.model.Users;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest
+@Import({VoteWriter.class, InMemoryVoteLedger.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class VoteWriterTest {
+
+    @Autowired
+    private VoteWriter voteWriter;
+    @Autowired
+    private VoteLedger voteLedger;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Users voter;
+    private Song song;
+
+    @BeforeEach
+    void setUp() {
+        Users creator = user("creator");
+        voter = user("voter");
+        Room room = new Room("Room", creator);
+        entityManager.persist(room);
+        song = new Song();
+        song.setYoutubeLink("https://youtu.be/abcdefghijk");
+        song.setVideoId("abcdefghijk");
+        song.setTitle("Song");
+        song.setRoom(room);
+        entityManager.persist(song);
+        entityManager.flush();
+    }
+
+    @Test
+    void writesVotesAndUpvotes() {
+        voteLedger.record(song.getId(), voter.getId());
+
+        voteWriter.flush();
+
+        assertThat(count("SELECT COUNT(*) FROM user_votes WHERE song_id = ?", song.getId())).isEqualTo(1);
+        assertThat(count("SELECT upvotes FROM song WHERE id = ?", song.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void skipsVotesThatAreAlreadyStored() {
+        voteLedger.record(song.getId(), voter.getId());
+        // Stored by another node in the meantime
+        jdbcTemplate.update("INSERT INTO user_votes (id, user_id, song_id, is_upvote) VALUES (?, ?, ?, true)",
+                1_000_000L, voter.getId(), song.getId());
+
+        voteWriter.flush();
+
+        assertThat(count("SELECT COUNT(*) FROM user_votes WHERE song_id = ?", song.getId())).isEqualTo(1);
+        assertThat(voteLedger.flush(10, batch -> { })).isZero();
+    }
+
+    @Test
+    void skipsVotesForDeletedSongs() {
+        voteLedger.record(song.getId(), voter.getId());
+        jdbcTemplate.update("DELETE FROM song WHERE id = ?", song.getId());
+
+        voteWriter.flush();
+
+        assertThat(count("SELECT COUNT(*) FROM user_votes")).isZero();
+        assertThat(voteLedger.flush(10, batch -> { })).isZero();
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    private Users user(String name) {
+        Users user = new Users();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,315 @@
+package org.vsarthi.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.vsarthi.backend.DTO.VideoMetadata;
+import org.vsarthi.backend.exception.YouTubeUnavailableException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs against a local stand-in for the YouTube Data API that knows every video except those whose
+ * id starts with "missing". Faults are injected by id: "fail" ids get a 500, "slow" ids are answered
+ * after two seconds, and all answers can be held back to keep requests in flight.
+ */
+class YouTubeServiceTest {
+
+    private HttpServer youTube;
+    private ExecutorService youTubeThreads;
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+    private final CountDownLatch answerRightAway = new CountDownLatch(0);
+    private volatile CountDownLatch release = answerRightAway;
+    private MeterRegistry meterRegistry;
+    private YouTubeService youTubeService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        youTube = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        youTube.createContext("/youtube/v3/videos", this::videos);
+        youTubeThreads = Executors.newCachedThreadPool();
+        youTube.setExecutor(youTubeThreads);
+        youTube.start();
+
+        youTubeService = youTubeService(60_000, 2_000, 20, 20);
+    }
+
+    // Every service gets its own registry so that its meters start from zero
+    @SuppressWarnings("unchecked")
+    private YouTubeService youTubeService(long cacheTtlMillis, long requestTimeoutMillis, int maxConcurrentCalls, int slidingWindowSize) {
+        meterRegistry = new SimpleMeterRegistry();
+        YouTubeApiClient apiClient = new YouTubeApiClient(1_000, requestTimeoutMillis, maxConcurrentCalls, 0, 50, slidingWindowSize, 60_000, meterRegistry);
+        VideoMetadataCache cache = new VideoMetadataCache(mock(RedisTemplate.class), new ObjectMapper(), 1000, cacheTtlMillis, cacheTtlMillis, false);
+        YouTubeService service = new YouTubeService(cache, apiClient, meterRegistry);
+        ReflectionTestUtils.setField(service, "apiKey", "key");
+        ReflectionTestUtils.setField(service, "baseUrl", "http://127.0.0.1:" + youTube.getAddress().getPort() + "/youtube/v3");
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        youTube.stop(0);
+        youTubeThreads.shutdownNow();
+    }
+
+    @Test
+    void looksUpVideosInChunksOfFifty() throws Exception {
+        List<String> videoIds = IntStream.range(0, 120).mapToObj(i -> "video" + i).toList();
+
+        Map<String, VideoMetadata> videos = youTubeService.getVideoMetadata(videoIds);
+
+        assertThat(videos).hasSize(120);
+        assertThat(requests).hasSize(3);
+        assertThat(requests).allSatisfy(ids -> assertThat(ids).hasSizeLessThanOrEqualTo(YouTubeService.MAX_IDS_PER_REQUEST));
+        assertThat(videos.get("video7")).isEqualTo(new VideoMetadata("video7", true, "Title video7", true, 253L, "https://i.ytimg.com/vi/video7/hqdefault.jpg"));
+    }
+
+    @Test
+    void missingVideosAreReportedAndCached() throws Exception {
+        Map<String, VideoMetadata> videos = youTubeService.getVideoMetadata(List.of("video1", "missing1"));
+
+        assertThat(videos.get("missing1")).isEqualTo(VideoMetadata.notFound("missing1"));
+        assertThat(videos.get("video1").available()).isTrue();
+
+        youTubeService.getVideoMetadata(List.of("video1", "missing1"));
+        youTubeService.getVideoMetadata("missing1");
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void onlyUncachedVideosAreRequested() throws Exception {
+        youTubeService.getVideoMetadata("video1");
+
+        youTubeService.getVideoMetadata(List.of("video1", "video2"));
+
+        assertThat(requests).containsExactly(List.of("video1"), List.of("video2"));
+    }
+
+    @Test
+    void concurrentLookupsOfTheSameVideoShareOneRequest() throws Exception {
+        int callers = 20;
+        release = new CountDownLatch(1);
+        List<Future<VideoMetadata>> lookups = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                lookups.add(executor.submit(() -> youTubeService.getVideoMetadata("video1")));
+            }
+            try {
+                // Every caller but the one fetching is waiting for its result
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (lookups("shared") < callers - 1 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                release.countDown();
+            }
+            for (Future<VideoMetadata> lookup : lookups) {
+                assertThat(lookup.get(10, TimeUnit.SECONDS).title()).isEqualTo("Title video1");
+            }
+        }
+
+        assertThat(requests).containsExactly(List.of("video1"));
+        assertThat(lookups("fetched")).isEqualTo(1);
+        assertThat(lookups("shared")).isEqualTo(callers - 1);
+        assertThat(meterRegistry.get("youtube.api.requests").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedRequestIsReportedToEveryWaitingLookup() throws Exception {
+        release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<VideoMetadata> fetching = executor.submit(() -> youTubeService.getVideoMetadata("fail1"));
+            Future<VideoMetadata> waiting = executor.submit(() -> youTubeService.getVideoMetadata("fail1"));
+            try {
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (lookups("shared") < 1 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                release.countDown();
+            }
+
+            assertThatThrownBy(() -> fetching.get(10, TimeUnit.SECONDS)).hasMessageContaining("Status code: 500");
+            assertThatThrownBy(() -> waiting.get(10, TimeUnit.SECONDS)).hasMessageContaining("Status code: 500");
+        }
+
+        // Nothing is left in flight, the next lookup asks again
+        release = answerRightAway;
+        assertThatThrownBy(() -> youTubeService.getVideoMetadata("fail1")).hasMessageContaining("Status code: 500");
+        assertThat(requests).hasSize(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://www.youtube.com/watch?v=dQw4w9WgXcQ",
+            "https://youtube.com/watch?feature=share&v=dQw4w9WgXcQ&t=10",
+            "http://m.youtube.com/watch?v=dQw4w9WgXcQ#comments",
+            "https://music.youtube.com/watch?v=dQw4w9WgXcQ&list=RDdQw4w9WgXcQ",
+            "https://youtu.be/dQw4w9WgXcQ?si=abc",
+            "youtu.be/dQw4w9WgXcQ",
+            "https://www.youtube.com/shorts/dQw4w9WgXcQ",
+            "https://www.youtube.com/embed/dQw4w9WgXcQ?autoplay=1",
+            "https://www.youtube-nocookie.com/embed/dQw4w9WgXcQ",
+            "https://www.youtube.com/live/dQw4w9WgXcQ",
+            "  https://WWW.YOUTUBE.COM/watch?v=dQw4w9WgXcQ  "
+    })
+    void extractsTheVideoIdFromCommonLinkForms(String link) {
+        assertThat(youTubeService.extractVideoId(link)).isEqualTo("dQw4w9WgXcQ");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://www.youtube.com/watch?list=PL123",
+            "https://www.youtube.com/watch?v=short",
+            "https://www.youtube.com/watch?v=dQw4w9WgXcQX",
+            "https://example.com/watch?v=dQw4w9WgXcQ",
+            "https://www.youtube.com/@channelname",
+            ""
+    })
+    void rejectsLinksWithoutAVideo(String link) {
+        assertThatThrownBy(() -> youTubeService.extractVideoId(link))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid YouTube link");
+    }
+
+    @Test
+    void slowAnswerTimesOut() {
+        youTubeService = youTubeService(60_000, 200, 20, 20);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> youTubeService.getVideoMetadata("slow1"))
+                .isInstanceOf(YouTubeUnavailableException.class)
+                .hasMessageContaining("in time");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void openCircuitFailsFastAndServesExpiredMetadata() throws Exception {
+        // Entries expire right away but stay known as last metadata
+        youTubeService = youTubeService(1, 2_000, 20, 4);
+        youTubeService.getVideoMetadata("video1");
+        for (int i = 0; i < 4; i++) {
+            String videoId = "fail" + i;
+            assertThatThrownBy(() -> youTubeService.getVideoMetadata(videoId)).isInstanceOf(YouTubeUnavailableException.class);
+        }
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state").tag("name", "youtube").tag("state", "open").gauge().value()).isEqualTo(1);
+        requests.clear();
+
+        assertThat(youTubeService.getVideoMetadata("video1").title()).isEqualTo("Title video1");
+        assertThatThrownBy(() -> youTubeService.getVideoMetadata("video2"))
+                .isInstanceOf(YouTubeUnavailableException.class)
+                .hasMessageContaining("try again later");
+        assertThat(requests).isEmpty();
+        assertThat(lookups("stale")).isEqualTo(1);
+    }
+
+    @Test
+    void lookupsBeyondTheBulkheadAreTurnedAway() throws Exception {
+        youTubeService = youTubeService(60_000, 5_000, 1, 20);
+        release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<VideoMetadata> first = executor.submit(() -> youTubeService.getVideoMetadata("video1"));
+            try {
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (requests.isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertThatThrownBy(() -> youTubeService.getVideoMetadata("video2"))
+                        .isInstanceOf(YouTubeUnavailableException.class)
+                        .hasMessageContaining("Too many");
+            } finally {
+                release.countDown();
+            }
+            assertThat(first.get(10, TimeUnit.SECONDS).found()).isTrue();
+        }
+
+        assertThat(requests).containsExactly(List.of("video1"));
+        assertThat(meterRegistry.get("resilience4j.bulkhead.max.allowed.concurrent.calls").tag("name", "youtube").gauge().value()).isEqualTo(1);
+    }
+
+    private double lookups(String source) {
+        return meterRegistry.get("youtube.metadata.lookups").tag("source", source).counter().count();
+    }
+
+    private void videos(HttpExchange exchange) throws IOException {
+        String ids = "";
+        for (String parameter : exchange.getRequestURI().getRawQuery().split("&")) {
+            if (parameter.startsWith("id=")) {
+                ids = URLDecoder.decode(parameter.substring(3), StandardCharsets.UTF_8);
+            }
+        }
+        List<String> videoIds = List.of(ids.split(","));
+        requests.add(videoIds);
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (videoIds.get(0).startsWith("slow")) {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (videoIds.get(0).startsWith("fail")) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+
+        JSONArray items = new JSONArray();
+        for (String videoId : videoIds) {
+            if (videoId.startsWith("missing")) {
+                continue;
+            }
+            items.put(new JSONObject()
+                    .put("id", videoId)
+                    .put("snippet", new JSONObject()
+                            .put("title", "Title " + videoId)
+                            .put("thumbnails", new JSONObject()
+                                    .put("default", new JSONObject().put("url", "https://i.ytimg.com/vi/" + videoId + "/default.jpg"))
+                                    .put("high", new JSONObject().put("url", "https://i.ytimg.com/vi/" + videoId + "/hqdefault.jpg"))))
+                    .put("status", new JSONObject().put("privacyStatus", "public").put("embeddable", true))
+                    .put("contentDetails", new JSONObject().put("duration", "PT4M13S")));
+        }
+        byte[] body = new JSONObject().put("items", items).toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}